@@ -1,9 +1,11 @@
 package cc.javajobs.buildtools;
 
+import cc.javajobs.buildtools.utils.AsyncLogger;
 import org.jetbrains.annotations.NotNull;
 import org.apache.commons.cli.*;
 
 import java.io.File;
+import java.util.function.Supplier;
 
 /**
  * With thanks to:
@@ -41,7 +43,36 @@ public class Main {
         options.addOption("d", "debug", false,
                 "Toggle Debug Mode.");
         options.addOption("h", "help", false, "Help Menu");
-        options.addOption("r", "reverse", false, "Reverse the BuildTools order (start at 1.8).");
+        options.addOption("r", "reverse", false,
+                "Reverse the BuildTools order (start at 1.8), implies '--order version'.");
+        options.addOption("p", "parallel", true,
+                "Select the most versions to build at once (defaults to half the cores, memory permitting).");
+        options.addOption("mb", "memory-budget", true,
+                "Select how many megabytes of memory the running builds may use (defaults to most of the available memory).");
+        options.addOption("st", "stall-timeout", true,
+                "Select how many minutes a build may go without output before it is killed (default 20, 0 disables).");
+        options.addOption("bt", "build-timeout", true,
+                "Select how many minutes a build may run for before it is killed (default 180, 0 disables).");
+        options.addOption("mt", "metadata-ttl", true,
+                "Select how many minutes cached version metadata is trusted before revalidating (default 60).");
+        options.addOption("nsg", "no-shared-git", false,
+                "Toggle off sharing a single git object store across all version folders.");
+        options.addOption("f", "force", false,
+                "Toggle building every version, even if it is unchanged since its last build.");
+        options.addOption("rs", "resume", false,
+                "Continue the last run if it was interrupted, retrying the versions which didn't succeed.");
+        options.addOption("m", "metrics", true,
+                "Select a port to serve live metrics on (Prometheus format, at '/metrics').");
+        options.addOption("o", "order", true,
+                "Select the build order, 'longest' (slowest versions first, default unless --reverse is used) or 'version'.");
+        options.addOption("v", "versions", true,
+                "Select the versions to build, as comma separated versions or ranges (e.g. '1.17-1.19.2,1.8.8').");
+        options.addOption("n", "nms", true,
+                "Select the NMS versions to build, comma separated (e.g. 'v1_19_R1,v1_18_R2').");
+        options.addOption("lpn", "latest-per-nms", false,
+                "Toggle building only the latest selected version of each NMS version (default unless --versions is used).");
+        options.addOption("s", "since", true,
+                "Select only the versions changed on the SpigotMC Hub since the given date (yyyy-MM-dd).");
         try {
             final CommandLineParser parser = new DefaultParser();
             final CommandLine parse = parser.parse(options, args);
@@ -50,13 +81,21 @@ public class Main {
                 formatter.printHelp(150, "java -jar " + jarName, hf, options, hf, true);
                 return;
             }
-            if (parse.hasOption("d")) debug = true;
+            if (parse.hasOption("d")) {
+                debug = true;
+                AsyncLogger.setThreshold(AsyncLogger.Level.DEBUG);
+            }
             for (Option option : parse.getOptions()) {
                 final String optionProperties = parse.getOptionValue(option);
                 debug("Found options: ");
-                debug(option + " : " + optionProperties);
+                debug(() -> option + " : " + optionProperties);
+            }
+            try {
+                processor.setupArguments(parse);
+            } catch (IllegalArgumentException e) {
+                error(e.getMessage() + ", nothing has been built.");
+                System.exit(1);
             }
-            processor.setupArguments(parse);
             processor.start();
         } catch (ParseException ex) {
             ex.printStackTrace();
@@ -65,13 +104,16 @@ public class Main {
 
     /**
      * Method to log the message to the console.
+     * <p>
+     *     Messages are written asynchronously by the {@link AsyncLogger}.
+     * </p>
      *
      * @param message to log.
      * @throws IllegalArgumentException if the message is blank.
      */
     public static void log(@NotNull String message) {
         if (message.isEmpty()) throw new IllegalArgumentException("Message cannot be blank");
-        System.out.println("[INFO] " + message);
+        AsyncLogger.log(AsyncLogger.Level.INFO, message);
     }
 
     /**
@@ -82,7 +124,7 @@ public class Main {
      */
     public static void error(@NotNull String message) {
         if (message.isEmpty()) throw new IllegalArgumentException("Message cannot be blank");
-        System.out.println("[ERROR] " + message);
+        AsyncLogger.log(AsyncLogger.Level.ERROR, message);
     }
 
     /**
@@ -93,7 +135,18 @@ public class Main {
      */
     public static void debug(@NotNull String message) {
         if (debug) {
-            System.out.println("[DEBUG] " + message);
+            AsyncLogger.log(AsyncLogger.Level.DEBUG, message);
+        }
+    }
+
+    /**
+     * Method to log the message to the console with the [DEBUG] prefix, only formatting it if debug is enabled.
+     *
+     * @param message supplying the message to log.
+     */
+    public static void debug(@NotNull Supplier<String> message) {
+        if (debug) {
+            AsyncLogger.log(AsyncLogger.Level.DEBUG, message.get());
         }
     }
 
@@ -1,27 +1,54 @@
 package cc.javajobs.buildtools;
 
+import cc.javajobs.buildtools.obj.BuildResult;
 import cc.javajobs.buildtools.obj.JavaVersion;
 import cc.javajobs.buildtools.obj.MinecraftVersion;
+import cc.javajobs.buildtools.obj.VersionSelector;
+import cc.javajobs.buildtools.tasks.AdmissionController;
+import cc.javajobs.buildtools.tasks.BuildListener;
+import cc.javajobs.buildtools.tasks.BuildOrder;
+import cc.javajobs.buildtools.tasks.BuildScheduler;
 import cc.javajobs.buildtools.tasks.BuildToolsThread;
+import cc.javajobs.buildtools.utils.ArtifactPublisher;
+import cc.javajobs.buildtools.utils.BuildStateStore;
+import cc.javajobs.buildtools.utils.ContentStore;
+import cc.javajobs.buildtools.utils.DurationHistory;
 import cc.javajobs.buildtools.utils.FileDownloader;
+import cc.javajobs.buildtools.utils.GitObjectStore;
+import cc.javajobs.buildtools.utils.IndexLockScanner;
+import cc.javajobs.buildtools.utils.MetadataCache;
+import cc.javajobs.buildtools.utils.Metrics;
+import cc.javajobs.buildtools.utils.MetricsServer;
+import cc.javajobs.buildtools.utils.RunJournal;
 import cc.javajobs.buildtools.utils.SpigotVersionCollector;
+import cc.javajobs.buildtools.utils.StreamingZipExtractor;
+import cc.javajobs.buildtools.utils.Trash;
+import cc.javajobs.buildtools.utils.WorkCache;
+import cc.javajobs.buildtools.utils.ZipExtractor;
 import net.lingala.zip4j.ZipFile;
 import net.lingala.zip4j.exception.ZipException;
 import net.lingala.zip4j.model.FileHeader;
 import org.apache.commons.cli.CommandLine;
-import org.apache.commons.io.FileUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -77,6 +104,11 @@ public class Processor {
      */
     private static final String MVN_3_8_6_DOWNLOAD = "https://dlcdn.apache.org/maven/maven-3/3.8.6/binaries/apache-maven-3.8.6-bin.zip";
 
+    /**
+     * The amount of concurrent segments used when downloading the large JDK and Maven archives.
+     */
+    private static final int DOWNLOAD_SEGMENTS = 4;
+
     /**
      * The Server/NMS Folder variables for storing the finalised Jars.
      */
@@ -87,10 +119,115 @@ public class Processor {
      */
     private boolean reverseVersions = false;
 
+    /**
+     * The maximum amount of BuildTools processes running at once.
+     */
+    private int parallelBuilds = BuildScheduler.defaultParallelism();
+
+    /**
+     * The time (in minutes) a cached version JSON is trusted without revalidation.
+     */
+    private long metadataTtl = MetadataCache.DEFAULT_TTL_MINUTES;
+
+    /**
+     * Share a single git object store across all version folders.
+     */
+    private boolean shareGitObjects = true;
+
+    /**
+     * Build every version, even if its inputs and Spigot Artifact are unchanged since its last build.
+     */
+    private boolean forceBuilds = false;
+
+    /**
+     * Continue the sweep recorded in the {@link #JOURNAL}, rather than starting a new one.
+     */
+    private boolean resumeRun = false;
+
+    /**
+     * The policy used to pick which version is built next.
+     */
+    private BuildOrder buildOrder = BuildOrder.LONGEST_FIRST;
+
+    /**
+     * The memory (in megabytes) the running builds may use, {@code -1} to use most of the available memory.
+     */
+    private long memoryBudget = -1;
+
+    /**
+     * The time (in minutes) a build may go without output before it is killed, {@code 0} to disable.
+     */
+    private long stallTimeout = 20;
+
+    /**
+     * The time (in minutes) a build may run for before it is killed, {@code 0} to disable.
+     */
+    private long buildTimeout = 180;
+
+    /**
+     * The port the metrics are served on, {@code 0} if they aren't served.
+     */
+    private int metricsPort = 0;
+
+    /**
+     * The versions selected to build, every version (the latest of each NMS Version) if it isn't active.
+     */
+    private final VersionSelector selector = new VersionSelector();
+
+    /**
+     * The folder of the store holding each BuildTools Jar under its digest, linked into each version folder.
+     */
+    private static final File BUILDTOOLS_STORE = new File("./Cache/buildtools/");
+
+    /**
+     * The folder of the shared git mirrors each version's repositories borrow their objects from.
+     */
+    private static final File GIT_STORE = new File("./Cache/git/");
+
+    /**
+     * The folder of the shared cache each version's '/work/' folder is seeded from and harvested into.
+     */
+    private static final File WORK_STORE = new File("./Cache/work/");
+
+    /**
+     * The folder of the state recording the inputs of each version's last successful build.
+     */
+    private static final File STATE_STORE = new File("./Cache/state/");
+
+    /**
+     * The journal recording the progress of the current (or last) sweep.
+     */
+    private static final File JOURNAL = new File("./Cache/journal.properties");
+
+    /**
+     * The history of how long each version took to build.
+     */
+    private static final File DURATIONS = new File("./Cache/durations.properties");
+
+    /**
+     * The history of the peak memory each version used whilst building.
+     */
+    private static final File MEMORY = new File("./Cache/memory.properties");
+
+    /**
+     * The folder obsolete folders and files are renamed into, before they are deleted in the background.
+     */
+    private static final File TRASH = new File("./Cache/trash/");
+
     /**
      * Method to <em>start</em> the process.
+     * <p>
+     * The bootstrap (downloading BuildTools, each JDK and Maven, and discovering the versions) runs as a set of
+     * concurrent tasks, each version's build is then started as soon as its own JDK and Maven are ready.
+     * <br>When only some versions are selected (or an interrupted sweep is resumed), a JDK is only prepared once a
+     * version requiring it has to be built, and Maven (and the shared git mirrors) once any version has to be built.
+     * <br>Versions whose inputs and Spigot Artifact are unchanged since their last successful build are skipped
+     * without starting BuildTools (unless '--force' is used).
+     * <br>The progress of the sweep is recorded in the {@link #JOURNAL}, '--resume' continues an interrupted sweep,
+     * retrying every version which didn't succeed.
+     * </p>
      *
-     * @throws InterruptedException if the delay between messages fails.
+     * @throws Exception if the versions cannot be discovered or the builds are interrupted.
      */
     public void start() throws Exception {
         Main.log("  ____        _ _     _ _______          _     ");
@@ -100,60 +237,177 @@ public class Processor {
         Main.log(" | |_) | |_| | | | (_| |  | | (_) | (_) | \\__ \\");
         Main.log(" |____/ \\__,_|_|_|\\__,_|  |_|\\___/ \\___/|_|___/");
         Main.log("                                               ");
-        Thread.sleep(3000);
         Main.log("'BuildTools - Master' is now processing, downloading the most up-to-date BuildTools Jar.");
-        Thread.sleep(5000);
-        final File buildTools = attemptDownloadBuildTools();
-        if (buildTools == null) return;
-        Thread.sleep(3000);
-        final File jdk17exe = locateJDKExecutable(JDK_17_DOWNLOAD, "17");
-        if (jdk17exe == null) return;
-        final File jdk16exe = locateJDKExecutable(JDK_16_DOWNLOAD, "16");
-        if (jdk16exe == null) return;
-        final File jdk8exe = locateJDKExecutable(JDK_8_DOWNLOAD, "8");
-        if (jdk8exe == null) return;
-        Thread.sleep(3000);
-        final File mavenDirectory = attemptDownloadMaven();
-        if (mavenDirectory == null) return;
-        Thread.sleep(10000);
-        final SpigotVersionCollector spigotVersionCollector = new SpigotVersionCollector(reverseVersions);
-        cleanup(spigotVersionCollector.getVersions());
-        for (MinecraftVersion value : spigotVersionCollector.getVersions()) {
-            final long start = System.currentTimeMillis();
-            final String version = value.toString();
-            final File versionFolder = createVersionFolder(buildTools.getParentFile(), version);
-            if (versionFolder == null) continue;
-            final File versionSpecificBuildTools = copyBuildToolsToVersion(version, versionFolder, buildTools);
-            if (versionSpecificBuildTools == null) continue;
-            if (version.equals("1.8") || version.equals("1.8.3")) {
-                if (!attemptDeleteOldWork(versionFolder, version)) {
-                    Main.error("Failed to delete /work/ for " + version + ", skipping this version.");
-                    Main.log("You can fix this by deleting '" + versionFolder.getAbsolutePath() + "\\work\\' manually.");
-                    Thread.sleep(5000);
-                    continue;
+        MetricsServer metricsServer = null;
+        if (metricsPort > 0) {
+            try {
+                metricsServer = new MetricsServer(metricsPort);
+            } catch (IOException e) {
+                Main.error("Failed to serve metrics on port " + metricsPort + ": " + e.getMessage());
+            }
+        }
+        final BuildScheduler scheduler = new BuildScheduler(parallelBuilds, new DurationHistory(DURATIONS), buildOrder);
+        scheduler.setAdmissionController(new AdmissionController(MEMORY,
+                memoryBudget > 0 ? memoryBudget * 1024 * 1024 : -1));
+        final ExecutorService bootstrap = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "BuildTools-Bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Trash trash = new Trash(TRASH);
+        final ArtifactPublisher publisher = new ArtifactPublisher(serverMove ? new File(serverFolder) : null,
+                nmsApiMove ? new File(nmsFolder) : null, overwriteFiles);
+        final WorkCache workCache = new WorkCache(WORK_STORE);
+        final BuildStateStore buildState = new BuildStateStore(STATE_STORE);
+        final Map<String, Properties> buildInputs = new ConcurrentHashMap<>();
+        final RunJournal previousRun = resumeRun ? RunJournal.load(JOURNAL) : null;
+        final boolean resuming = previousRun != null && !previousRun.isFinished();
+        if (resumeRun && !resuming) Main.log("There is no interrupted run to resume, starting a new run.");
+        final RunJournal journal = resuming ? previousRun : new RunJournal(JOURNAL);
+        final List<CompletableFuture<Void>> postBuild = Collections.synchronizedList(new ArrayList<>());
+        scheduler.setListener(new BuildListener() {
+            @Override
+            public void onStart(@NotNull MinecraftVersion version) {
+                journal.transition(version.toString(), RunJournal.State.RUNNING);
+            }
+
+            @Override
+            public void onComplete(@NotNull BuildResult result) {
+                final String version = result.getVersion().toString();
+                if (!result.isSuccess()) {
+                    journal.transition(version, RunJournal.State.FAILED);
+                    return;
                 }
+                // Hashing '/work/' takes a while, release the build's slot to the next build meanwhile.
+                postBuild.add(CompletableFuture.runAsync(() -> {
+                    // Share the files the build created with every other version (and future runs).
+                    workCache.harvest(new File(result.getArtifact().getParentFile(), "work"), version);
+                    final Properties inputs = buildInputs.get(version);
+                    if (inputs != null) buildState.record(version, inputs, result.getArtifact());
+                    journal.succeeded(version, result.getArtifact());
+                    publisher.publish(version, result.getArtifact());
+                }, bootstrap).exceptionally(throwable -> {
+                    Main.error("Experienced an error whilst storing the build of " + version + ": " + throwable);
+                    return null;
+                }));
             }
-            final BuildToolsThread thread;
-            if (value.getJava().equals(JavaVersion.JAVA_17)) {
-                thread = new BuildToolsThread(jdk17exe, version, versionFolder, versionSpecificBuildTools, mavenDirectory);
-            } else if (value.getJava().equals(JavaVersion.JAVA_16)) {
-                thread = new BuildToolsThread(jdk16exe, version, versionFolder, versionSpecificBuildTools, mavenDirectory);
-            } else {
-                thread = new BuildToolsThread(jdk8exe, version, versionFolder, versionSpecificBuildTools, mavenDirectory);
+        });
+        try {
+            final CompletableFuture<File> buildToolsTask = CompletableFuture.supplyAsync(this::attemptDownloadBuildTools, bootstrap);
+            // Each JDK is prepared once, by the first version which requires it.
+            final Map<String, CompletableFuture<File>> jdkTasks = new ConcurrentHashMap<>();
+            final Function<String, CompletableFuture<File>> jdkTaskFor = jdk -> jdkTasks.computeIfAbsent(jdk,
+                    url -> CompletableFuture.supplyAsync(() -> locateJDKExecutable(url, getJDKName(url)), bootstrap));
+            // Maven and the shared git mirrors are prepared once the first version has to be built.
+            final CompletableFuture<Void> toolchainRequired = new CompletableFuture<>();
+            final CompletableFuture<File> mavenTask = toolchainRequired.thenApplyAsync(ignored -> attemptDownloadMaven(), bootstrap);
+            final GitObjectStore gitStore = new GitObjectStore(GIT_STORE);
+            final CompletableFuture<Boolean> gitTask = shareGitObjects
+                    ? toolchainRequired.thenApplyAsync(ignored -> gitStore.prepareMirrors(), bootstrap)
+                    : CompletableFuture.completedFuture(false);
+            if (!selector.isActive() && !resuming) {
+                // A full sweep requires every JDK, prepare the toolchain whilst the versions are discovered.
+                toolchainRequired.complete(null);
+                for (String jdk : new String[]{JDK_17_DOWNLOAD, JDK_16_DOWNLOAD, JDK_8_DOWNLOAD}) jdkTaskFor.apply(jdk);
+            }
+            final CompletableFuture<SpigotVersionCollector> versionsTask = CompletableFuture.supplyAsync(() -> {
+                try {
+                    final MetadataCache cache = new MetadataCache(new File("./Cache/metadata/"), metadataTtl);
+                    Metrics.setMetadataCache(cache);
+                    // An interrupted run continues with its own versions, rather than discovering them again.
+                    if (resuming) return new SpigotVersionCollector(journal.getVersions(), reverseVersions, cache);
+                    if (selector.isActive()) return new SpigotVersionCollector(selector, reverseVersions, cache);
+                    return new SpigotVersionCollector(reverseVersions, cache);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, bootstrap);
+            final File downloadedBuildTools = buildToolsTask.join();
+            if (downloadedBuildTools == null) return;
+            final String buildToolsDigest;
+            try {
+                buildToolsDigest = FileDownloader.sha256(downloadedBuildTools);
+            } catch (IOException e) {
+                Main.error("Failed to hash the BuildTools Jar: " + e.getMessage());
+                return;
+            }
+            final File buildTools = storeBuildTools(downloadedBuildTools, buildToolsDigest);
+            if (buildTools == null) return;
+            final SpigotVersionCollector spigotVersionCollector;
+            try {
+                spigotVersionCollector = versionsTask.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
             }
-            final Thread task = new Thread(thread);
-            task.start();
-            task.join();
-            final File producedFile = new File(versionFolder, "spigot-" + version + ".jar");
-            if (!producedFile.exists()) {
-                Main.error("Failed to produce the Spigot Artifact, this probably means there was an error.");
+            cleanup(spigotVersionCollector.getVersions(), trash, workCache);
+            if (resuming) {
+                Main.log("Resuming the interrupted run of " + journal.getVersions().size() + " versions.");
             } else {
-                final long finish = System.currentTimeMillis();
-                final long diff = finish - start;
-                Main.log("Took " + TimeUnit.MILLISECONDS.toMinutes(diff) + " minutes to compile " + producedFile.getName());
+                journal.begin(spigotVersionCollector.getVersions().stream()
+                        .map(MinecraftVersion::toString).collect(Collectors.toList()));
+            }
+            Main.log("Building up to " + scheduler.getParallelism() + " versions at once, in '" + buildOrder.getName() + "' order.");
+            int skipped = 0;
+            for (MinecraftVersion value : scheduler.sort(spigotVersionCollector.getVersions())) {
+                final String version = value.toString();
+                final File artifact = new File(new File(downloadedBuildTools.getParentFile(), version),
+                        "spigot-" + version + ".jar");
+                if (resuming && journal.isTrusted(version)) {
+                    Main.log("Skipping " + version + " as it was built successfully by the interrupted run.");
+                    publisher.publish(version, artifact);
+                    skipped++;
+                    continue;
+                }
+                final String jdk = getJDKDownload(value.getJava());
+                final Properties inputs = BuildStateStore.describeInputs(value, buildToolsDigest, jdk);
+                if (!forceBuilds && buildState.isUpToDate(version, inputs, artifact)) {
+                    Main.log("Skipping " + version + " as its inputs and Spigot Artifact are unchanged since its last build.");
+                    journal.succeeded(version, artifact);
+                    publisher.publish(version, artifact);
+                    skipped++;
+                    continue;
+                }
+                buildInputs.put(version, inputs);
+                final File versionFolder = createVersionFolder(downloadedBuildTools.getParentFile(), version);
+                final File versionSpecificBuildTools = versionFolder == null ? null
+                        : linkBuildToolsToVersion(version, versionFolder, buildTools);
+                if (versionSpecificBuildTools == null) {
+                    journal.transition(version, RunJournal.State.FAILED);
+                    continue;
+                }
+                if (version.equals("1.8") || version.equals("1.8.3")) {
+                    if (!attemptDeleteOldWork(versionFolder, version, workCache, trash)) {
+                        Main.error("Failed to delete /work/ for " + version + ", skipping this version.");
+                        Main.log("You can fix this by deleting '" + versionFolder.getAbsolutePath() + "\\work\\' manually.");
+                        journal.transition(version, RunJournal.State.FAILED);
+                        continue;
+                    }
+                }
+                workCache.seed(new File(versionFolder, "work"), version);
+                toolchainRequired.complete(null);
+                final CompletableFuture<BuildToolsThread> thread = jdkTaskFor.apply(jdk).thenCombine(mavenTask, (java, maven) -> {
+                    if (java == null || maven == null) return null;
+                    final BuildToolsThread buildToolsThread = new BuildToolsThread(java, version, versionFolder,
+                            versionSpecificBuildTools, maven);
+                    buildToolsThread.setTimeouts(TimeUnit.MINUTES.toMillis(stallTimeout),
+                            TimeUnit.MINUTES.toMillis(buildTimeout));
+                    return buildToolsThread;
+                }).thenCombineAsync(gitTask, (buildToolsThread, shared) -> {
+                    // Wire the version's repositories to the shared mirrors before BuildTools clones them.
+                    if (buildToolsThread != null && shared) gitStore.wire(versionFolder, version);
+                    return buildToolsThread;
+                }, bootstrap);
+                scheduler.submit(value, thread, artifact);
             }
+            if (skipped != 0) Main.log("Skipped " + skipped + " versions which don't need to be built again.");
+            scheduler.awaitCompletion();
+            CompletableFuture.allOf(postBuild.toArray(new CompletableFuture<?>[0])).join();
+            workCache.collect();
+        } finally {
+            bootstrap.shutdown();
+            if (metricsServer != null) metricsServer.stop();
         }
-        done();
+        publisher.awaitCompletion();
     }
 
     /**
@@ -162,10 +416,20 @@ public class Processor {
      * @return {@link File} which was downloaded or {@code null} if failure occurred.
      */
     private File attemptDownloadMaven() {
-        final FileDownloader mavenDownloader = new FileDownloader();
         final String folder = "./Maven/";
         final String filename = "Maven-3.8.6.zip";
-        if (!mavenDownloader.downloadFile(MVN_3_8_6_DOWNLOAD, filename, folder)) {
+        final FileDownloader mavenDownloader;
+        try {
+            // On a cold start, extract Maven whilst it downloads.
+            mavenDownloader = new File(folder, filename).exists() ? new FileDownloader(DOWNLOAD_SEGMENTS)
+                    : new FileDownloader(new StreamingZipExtractor(new File(folder), null));
+        } catch (IOException e) {
+            Main.error("Failed to prepare the Maven folder: " + e.getMessage());
+            return null;
+        }
+        final String checksum = FileDownloader.fetchChecksum(MVN_3_8_6_DOWNLOAD + ".sha512");
+        if (checksum == null) Main.log("Failed to download the Maven-3.8.6 checksum, it will not be verified.");
+        if (!mavenDownloader.downloadFile(MVN_3_8_6_DOWNLOAD, filename, folder, checksum)) {
             Main.error("Failed to download Maven-3.8.6.");
             return null;
         } else {
@@ -174,7 +438,7 @@ public class Processor {
             Main.log("Extracting Maven-3.8.6.");
             if (extractZipFile(file)) {
                 Main.log("Extracted Maven, using this for future BuildTools processes.");
-                Main.debug("Exists? " + new File(folder + "/apache-maven-3.8.6/").exists());
+                Main.debug(() -> "Exists? " + new File(folder + "/apache-maven-3.8.6/").exists());
                 return new File(folder, "apache-maven-3.8.6/");
             } else {
                 Main.error("Failed to extract Maven.");
@@ -185,10 +449,15 @@ public class Processor {
 
     /**
      * Method to 'cleanup' the "BuildTools" directory.
+     * <p>
+     * Folders of versions which are no longer built are deleted, unless only some versions were selected.
+     * </p>
      *
-     * @param versions used for keeping current versions for updating.
+     * @param versions  used for keeping current versions for updating.
+     * @param trash     to discard unnecessary folders into.
+     * @param workCache to forget the work of deleted folders within.
      */
-    private void cleanup(List<MinecraftVersion> versions) {
+    private void cleanup(List<MinecraftVersion> versions, @NotNull Trash trash, @NotNull WorkCache workCache) {
         final File file = new File("./BuildTools/");
         final File[] files = file.listFiles();
         if (files == null) {
@@ -199,52 +468,60 @@ public class Processor {
         Main.log("Cleaning up local folder './BuildTools/'");
         Main.debug("Searching for old versions which have now been replaced (NMS Version not updated, but Spigot has)");
         for (File subfile : files) {
-            if (subfile.isDirectory()) {
-                Main.debug("Considering '" + subfile.getName() + "' for deletion.");
+            // Unselected versions aren't obsolete, they're kept for the runs which select them.
+            if (subfile.isDirectory() && !selector.isActive()) {
+                Main.debug(() -> "Considering '" + subfile.getName() + "' for deletion.");
                 if (!vers.contains(subfile.getName())) {
                     try {
-                        FileUtils.deleteDirectory(subfile);
-                        Main.log("Deleted unnecessary folder '" + subfile.getName() + "'.");
+                        trash.discard(subfile);
+                        workCache.forget(subfile.getName());
+                        Main.log("Deleted unnecessary folder '" + subfile.getName() + "' (in the background).");
                     } catch (IOException e) {
                         Main.error("Failed to delete unnecessary folder '" + subfile.getName() + "'.");
                     }
-                } else Main.debug("'" + subfile.getName() + "' is okay to stay, no deletion task required.");
+                } else Main.debug(() -> "'" + subfile.getName() + "' is okay to stay, no deletion task required.");
             }
         }
         Main.debug("Scanning for index.lock files.");
-        for (String versionString : vers) {
-            final File versionFile = new File(file, versionString);
-            checkForAndDeleteIndexLock(versionFile);
-        }
+        final long start = System.currentTimeMillis();
+        final IndexLockScanner scanner = new IndexLockScanner();
+        scanner.scan(vers.stream().map(version -> new File(file, version)).collect(Collectors.toList()));
+        Main.log("Scanned " + vers.size() + " version folders for 'index.lock' files in "
+                + (System.currentTimeMillis() - start) + "ms (" + scanner.getVisited() + " files visited, "
+                + scanner.getDeleted() + " deleted).");
         Main.log("Cleanup finished.");
     }
 
     /**
-     * Method to delete any found 'index.lock' files.
+     * Method to obtain the download of the JDK the given Java Version is built with.
      *
-     * @param f to scan/delete if required.
-     */
-    private void checkForAndDeleteIndexLock(File f) {
-        if (f.isDirectory()) {
-            final File[] files = f.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    checkForAndDeleteIndexLock(file);
-                }
-            }
-        } else {
-            if (f.getName().equals("index.lock")) {
-                if (f.delete()) {
-                    Main.debug("Deleted 'index.lock' file: " + f.getAbsolutePath());
-                }
-            }
-        }
+     * @param java required by the version.
+     * @return {@link #JDK_17_DOWNLOAD}, {@link #JDK_16_DOWNLOAD} or {@link #JDK_8_DOWNLOAD}.
+     */
+    @NotNull
+    private static String getJDKDownload(@NotNull JavaVersion java) {
+        if (java.equals(JavaVersion.JAVA_17)) return JDK_17_DOWNLOAD;
+        if (java.equals(JavaVersion.JAVA_16)) return JDK_16_DOWNLOAD;
+        return JDK_8_DOWNLOAD;
+    }
+
+    /**
+     * Method to obtain the name ("17"/"16"/"8") of the JDK at the given download.
+     *
+     * @param url of the JDK.
+     * @return the name of the JDK.
+     */
+    @NotNull
+    private static String getJDKName(@NotNull String url) {
+        if (url.equals(JDK_17_DOWNLOAD)) return "17";
+        if (url.equals(JDK_16_DOWNLOAD)) return "16";
+        return "8";
     }
 
     /**
      * Method to locate the JDK Executable.
      * <p>
-     * If the JDK is not installed, it will install the JDK from the given url.
+     * If the JDK is not installed, it will install the JDK from the given url, extracting it as it downloads.
      * <br>If the JDK is installed, it will skip to extraction.
      * <br>Once the JDK has been extracted, it will attempt to find the /bin/java.exe executable.
      * </p>
@@ -252,16 +529,22 @@ public class Processor {
      * @param url  to download the JDK from.
      * @param name of the JDK ("16"/"8").
      * @return {@link File} or {@code null} depending on if the '.exe' is found.
-     * @throws InterruptedException if the message delay fails.
      */
     @Nullable
-    private File locateJDKExecutable(@NotNull String url, @NotNull String name) throws InterruptedException {
+    private File locateJDKExecutable(@NotNull String url, @NotNull String name) {
         Main.log("Downloading JDK " + name + ".");
-        final File jdk = attemptJDKDownload(url, name);
+        final AtomicReference<File> streamedExecutable = new AtomicReference<>();
+        final File jdk = attemptJDKDownload(url, name, file -> {
+            // Resolve the executable as soon as it is written, rather than reading the Zip back afterwards.
+            if (file.getName().equals("java.exe") && file.getParentFile().getName().equals("bin")) {
+                if (streamedExecutable.compareAndSet(null, file)) {
+                    Main.log("Found 'java.exe' at " + file.getAbsolutePath());
+                }
+            }
+        });
         if (jdk == null) return null;
-        Thread.sleep(3000);
         if (!extractZipFile(jdk)) return null;
-        Thread.sleep(1000);
+        if (streamedExecutable.get() != null) return streamedExecutable.get();
         return resolveExecutable(jdk.getParentFile(), jdk);
     }
 
@@ -269,6 +552,7 @@ public class Processor {
      * Helper method to delegate the options passed to the command line into the functionality of the project.
      *
      * @param parsedCLIOptions to configure the projects' exection.
+     * @throws IllegalArgumentException if the selected versions, NMS versions or date are malformed.
      */
     public void setupArguments(@NotNull CommandLine parsedCLIOptions) {
         if (parsedCLIOptions.hasOption("msj")) {
@@ -281,65 +565,73 @@ public class Processor {
         }
         if (parsedCLIOptions.hasOption("k")) overwriteFiles = false;
         if (parsedCLIOptions.hasOption("r")) reverseVersions = true;
-    }
-
-    /**
-     * List folders within the specified folder.
-     *
-     * @param folder to analyse.
-     * @return {@link List} of directories.
-     */
-    private List<File> listFoldersForFolder(@NotNull final File folder) {
-        final List<File> directories = new ArrayList<>();
-        for (final File fileEntry : Objects.requireNonNull(folder.listFiles())) {
-            if (fileEntry.isDirectory()) {
-                directories.add(fileEntry);
+        if (parsedCLIOptions.hasOption("p")) {
+            try {
+                parallelBuilds = Math.max(1, Integer.parseInt(parsedCLIOptions.getOptionValue("p")));
+            } catch (NumberFormatException e) {
+                Main.error("Invalid parallel build count '" + parsedCLIOptions.getOptionValue("p")
+                        + "', defaulting to " + parallelBuilds + ".");
             }
         }
-        return directories;
-    }
-
-    /**
-     * List files within a folder.
-     * <p>
-     * If folders are found within the file, it'll list those too.
-     * </p>
-     *
-     * @param folder to analyse.
-     * @return {@link List} of files.
-     * @see #listFoldersForFolder(File)
-     */
-    private List<File> listFilesForFolder(final File folder) {
-        final List<File> files = new ArrayList<>();
-        final File[] internalFiles = folder.listFiles();
-        if (internalFiles == null) return files;
-        for (final File fileEntry : Objects.requireNonNull(internalFiles)) {
-            if (fileEntry.isDirectory()) {
-                listFilesForFolder(fileEntry);
-            } else {
-                files.add(fileEntry);
+        if (parsedCLIOptions.hasOption("nsg")) shareGitObjects = false;
+        if (parsedCLIOptions.hasOption("f")) forceBuilds = true;
+        if (parsedCLIOptions.hasOption("rs")) resumeRun = true;
+        if (parsedCLIOptions.hasOption("mb")) {
+            try {
+                memoryBudget = Long.parseLong(parsedCLIOptions.getOptionValue("mb"));
+            } catch (NumberFormatException e) {
+                Main.error("Invalid memory budget '" + parsedCLIOptions.getOptionValue("mb")
+                        + "', defaulting to the available memory.");
             }
         }
-        return files;
-    }
-
-    /**
-     * Method to copy a file from 'source' to 'dest'.
-     *
-     * @param source path.
-     * @param dest   or destination path.
-     * @throws IOException if the operation fails.
-     */
-    private void copyFile(Path source, Path dest) throws IOException {
-        if (overwriteFiles) {
-            Files.copy(source, dest, StandardCopyOption.REPLACE_EXISTING);
-            Main.log("Copied " + source.getFileName().toString() + " to " + dest.getFileName().toString());
-        } else {
-            if (Files.exists(dest)) {
-                Main.debug("Skipping " + dest.getFileName().toString() + " because it already exists.");
-            } else {
-                Files.copy(source, dest);
-                Main.log("Copied " + source.getFileName().toString() + " to " + dest.getFileName().toString());
+        if (parsedCLIOptions.hasOption("st")) {
+            try {
+                stallTimeout = Math.max(0, Long.parseLong(parsedCLIOptions.getOptionValue("st")));
+            } catch (NumberFormatException e) {
+                Main.error("Invalid stall timeout '" + parsedCLIOptions.getOptionValue("st")
+                        + "', defaulting to " + stallTimeout + " minutes.");
+            }
+        }
+        if (parsedCLIOptions.hasOption("bt")) {
+            try {
+                buildTimeout = Math.max(0, Long.parseLong(parsedCLIOptions.getOptionValue("bt")));
+            } catch (NumberFormatException e) {
+                Main.error("Invalid build timeout '" + parsedCLIOptions.getOptionValue("bt")
+                        + "', defaulting to " + buildTimeout + " minutes.");
+            }
+        }
+        if (parsedCLIOptions.hasOption("m")) {
+            try {
+                metricsPort = Integer.parseInt(parsedCLIOptions.getOptionValue("m"));
+                if (metricsPort < 1 || metricsPort > 65535) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                Main.error("Invalid metrics port '" + parsedCLIOptions.getOptionValue("m") + "', metrics won't be served.");
+                metricsPort = 0;
+            }
+        }
+        if (parsedCLIOptions.hasOption("o")) {
+            final BuildOrder order = BuildOrder.getByName(parsedCLIOptions.getOptionValue("o"));
+            if (order == null) {
+                Main.error("Invalid build order '" + parsedCLIOptions.getOptionValue("o")
+                        + "', defaulting to '" + buildOrder.getName() + "'.");
+            } else buildOrder = order;
+        }
+        // Reversing the versions only changes the order they're built in when they're built in version order.
+        if (reverseVersions && !parsedCLIOptions.hasOption("o")) buildOrder = BuildOrder.SUBMISSION;
+        else if (reverseVersions && buildOrder != BuildOrder.SUBMISSION) {
+            Main.error("'--reverse' has no effect with the '" + buildOrder.getName() + "' build order.");
+        }
+        // A malformed selection isn't ignored, as building (and cleaning up) every version instead is far worse.
+        if (parsedCLIOptions.hasOption("v")) selector.addVersions(parsedCLIOptions.getOptionValue("v"));
+        if (parsedCLIOptions.hasOption("n")) selector.addNms(parsedCLIOptions.getOptionValue("n"));
+        if (parsedCLIOptions.hasOption("lpn")) selector.setLatestPerNms(true);
+        if (parsedCLIOptions.hasOption("s")) selector.setSince(parsedCLIOptions.getOptionValue("s"));
+        if (parsedCLIOptions.hasOption("mt")) {
+            try {
+                metadataTtl = Long.parseLong(parsedCLIOptions.getOptionValue("mt"));
+            } catch (NumberFormatException e) {
+                Main.error("Invalid metadata TTL '" + parsedCLIOptions.getOptionValue("mt")
+                        + "', defaulting to " + metadataTtl + " minutes.");
             }
         }
     }
@@ -356,70 +648,34 @@ public class Processor {
             if (!file.mkdirs()) {
                 Main.error("Failed to create the directory '" + path + "'.");
             }
-        } else Main.debug("Folder " + path + " already exists.");
+        } else Main.debug(() -> "Folder " + path + " already exists.");
         return path;
     }
 
     /**
-     * Called when the program finishes running. Used for program args
-     */
-    public void done() {
-        List<File> folders = listFoldersForFolder(new File("./BuildTools"));
-        //using lambda to call the method when the program finishes.
-        if (serverMove) {
-            folders.forEach(folder -> {
-                List<File> files = listFilesForFolder(folder);
-                files.forEach(file -> {
-                    if (file.getName().equals("spigot-" + folder.getName() + ".jar")) {
-                        try {
-                            Main.log("Moving " + file.getName() + " to " + new File(serverFolder).getPath());
-                            copyFile(file.toPath(), new File(serverFolder + "/" + file.getName()).toPath());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                });
-            });
-        }
-        if (nmsApiMove) {
-            folders.forEach(folder -> {
-                List<File> target = listFilesForFolder(new File(folder.getPath() + "/Spigot/Spigot-Server/target"));
-                target.forEach(
-                        file -> {
-                            if (file.getName().endsWith(".jar")) {
-                                if (file.getName().startsWith("spigot-") && !file.getName().endsWith("-bootstrap.jar")
-                                        && !file.getName().endsWith("-remapped.jar")) {
-                                    try {
-                                        Main.log("Moving " + file.getName() + " to " + new File(nmsFolder).getPath());
-                                        copyFile(file.toPath(), new File(nmsFolder + "/" + file.getName()).toPath());
-                                    } catch (IOException e) {
-                                        e.printStackTrace();
-                                    }
-                                }
-                            }
-                        }
-                );
-            });
-        }
-    }
-
-    /**
-     * Method to delete the /work/ folder for the given Versions.
+     * Method to delete the unverified contents of the /work/ folder for the given Versions.
      * <p>
      * I'm not sure if its just my side, but BuildTools #131 fails to hash the old mc-server file.
-     * <br>This method therefore clears the /work/ folder, forcing BuildTools to create it manually again.
+     * <br>This method therefore deletes every file in the /work/ folder which doesn't match the digest recorded in
+     * the {@link WorkCache}, forcing BuildTools to create those files again.
      * </p>
      *
      * @param versionFolder to delete /work/ from.
      * @param version       to notify console on the success/failure of the process.
-     * @return {@code true} if the /work/ folder is deleted.
+     * @param workCache     to verify the files against.
+     * @param trash         to discard the unverified files into.
+     * @return {@code true} if every unverified file is deleted.
      */
-    private boolean attemptDeleteOldWork(@NotNull File versionFolder, @NotNull String version) {
+    private boolean attemptDeleteOldWork(@NotNull File versionFolder, @NotNull String version,
+                                         @NotNull WorkCache workCache, @NotNull Trash trash) {
         final File work = new File(versionFolder, "work");
         if (work.exists()) {
             try {
-                FileUtils.deleteDirectory(work);
-                Main.log("Deleted /work/ for " + version + ", I'm not sure why, but this is required for " + version + "!");
+                final int deleted = workCache.prune(work, version, trash);
+                if (deleted != 0) {
+                    Main.log("Deleted " + deleted + " unverified files from /work/ for " + version
+                            + ", I'm not sure why, but this is required for " + version + "!");
+                }
                 return true;
             } catch (IOException e) {
                 Main.error("Failed to delete /work/ for " + version);
@@ -445,7 +701,7 @@ public class Processor {
                 return null;
             }
         }
-        Main.debug("Found the folder:\t" + file.getAbsolutePath());
+        Main.debug(() -> "Found the folder:\t" + file.getAbsolutePath());
         return file;
     }
 
@@ -453,7 +709,7 @@ public class Processor {
      * Method to attempt to download {@link #BUILDTOOLS_LOCATION}.
      * <p>
      * Due to the nature of SpigotMC's BuildTools, ensuring you have the most up-to-date Jar is important,
-     * this method therefore forces the download regardless of the existence of the Jar.
+     * this method therefore revalidates the Jar with SpigotMC on every run, only downloading it if it has changed.
      * </p>
      *
      * @return {@link File} which was downloaded or {@code null} if failure occurred.
@@ -508,9 +764,9 @@ public class Processor {
     /**
      * Method to extract the Zip file.
      * <p>
-     * This method uses <em>Zip4J</em> to unzip the given Zip-File.
-     * <br>Credit: <a href="https://github.com/srikanth-lingala/zip4j">...</a>
-     * <br>If the zip has already been unzipped, then the process doesn't unzip it again.
+     * This method uses the {@link ZipExtractor} to unzip the given Zip-File across several workers.
+     * <br>If the zip has already been completely unzipped, then the process doesn't unzip it again, a partially
+     * unzipped folder (for example after a crash) is extracted again.
      * </p>
      *
      * @param file to extract.
@@ -519,15 +775,11 @@ public class Processor {
     private boolean extractZipFile(@NotNull File file) {
         try {
             Main.log("Extracting Downloaded Zip Contents.");
-            final ZipFile zip = new ZipFile(file);
-            final FileHeader fileHeader = zip.getFileHeaders().get(0);
-            final File outputFolder = new File(file.getParentFile(), fileHeader.getFileName());
-            if (!outputFolder.exists()) {
-                zip.extractAll(file.getParentFile().getAbsolutePath());
-            } else {
+            if (ZipExtractor.isExtracted(file)) {
                 Main.log("Zip has already been extracted.");
                 return true;
             }
+            new ZipExtractor().extract(file, file.getParentFile());
             Main.log("Successfully Extracted Zip.");
             return true;
         } catch (IOException exception) {
@@ -540,23 +792,36 @@ public class Processor {
     /**
      * Method to attempt to download the JDK from the given path.
      * <p>
-     * If the downloaded zip already exists, then the download is skipped.
+     * If the downloaded zip already exists and still matches its recorded digest, then the download is skipped.
+     * <br>If the download was previously interrupted, then it is resumed.
+     * <br>The download is verified against the SHA-256 checksum published next to it.
+     * <br>On a cold start (no zip), the JDK is extracted whilst it is downloaded.
      * </p>
      *
      * @param path     of the download (url).
      * @param niceName of the JDK, probably "16" or "8".
+     * @param listener notified with each file extracted whilst the JDK is downloading.
      * @return {@link File} if the JDK Zip downloads successfully.
      * @see #JDK_8_DOWNLOAD
      * @see #JDK_16_DOWNLOAD
      */
     @Nullable
-    private File attemptJDKDownload(@NotNull String path, @NotNull String niceName) {
-        final FileDownloader jdkDownloader = new FileDownloader();
+    private File attemptJDKDownload(@NotNull String path, @NotNull String niceName, @NotNull Consumer<File> listener) {
         final String folder = "JDK";
         final String filename = "jdk-" + niceName + ".zip";
         final File file = new File("./" + folder, filename);
-        if (file.exists()) return file;
-        if (!jdkDownloader.downloadFile(path, filename, folder)) {
+        if (file.exists() && FileDownloader.isVerified(file)) return file;
+        final FileDownloader jdkDownloader;
+        try {
+            jdkDownloader = file.exists() ? new FileDownloader(DOWNLOAD_SEGMENTS)
+                    : new FileDownloader(new StreamingZipExtractor(new File("./" + folder), listener));
+        } catch (IOException e) {
+            Main.error("Failed to prepare the JDK folder: " + e.getMessage());
+            return null;
+        }
+        final String checksum = FileDownloader.fetchChecksum(path + ".sha256.txt");
+        if (checksum == null) Main.log("Failed to download the JDK " + niceName + " checksum, it will not be verified.");
+        if (!jdkDownloader.downloadFile(path, filename, folder, checksum)) {
             Main.error("Failed to download the JDK.");
             return null;
         } else {
@@ -566,28 +831,50 @@ public class Processor {
     }
 
     /**
-     * Method to copy 'BuildTools.jar' to the given Version Folder.
+     * Method to store 'BuildTools.jar' in the {@link #BUILDTOOLS_STORE} under its digest.
+     *
+     * @param buildTools to store.
+     * @param digest     of the BuildTools Jar.
+     * @return the stored {@link File} or {@code null} if it couldn't be stored.
+     */
+    @Nullable
+    private File storeBuildTools(@NotNull File buildTools, @NotNull String digest) {
+        try {
+            final File stored = new ContentStore(BUILDTOOLS_STORE).store(buildTools, digest, ".jar");
+            Main.debug(() -> "BuildTools Jar digest:\t" + digest);
+            return stored;
+        } catch (IOException e) {
+            Main.error("Failed to store the BuildTools Jar: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Method to expose the stored 'BuildTools.jar' in the given Version Folder.
+     * <p>
+     * The Jar is hard linked to the copy in the {@link #BUILDTOOLS_STORE}, so every version shares the same file and
+     * an unchanged Jar is left alone, a copy is only made if the filesystem doesn't support hard links.
+     * </p>
      *
-     * @param version    to copy it for (used when the Jar is renamed).
-     * @param folder     to copy it to.
-     * @param buildTools to copy.
-     * @return the copied {@link File} or {@code null} if the copy transaction fails.
+     * @param version    to link it for (used when the Jar is renamed).
+     * @param folder     to link it to.
+     * @param buildTools stored copy to link.
+     * @return the linked {@link File} or {@code null} if the link transaction fails.
      */
     @Nullable
-    private File copyBuildToolsToVersion(@NotNull String version, @NotNull File folder, @NotNull File buildTools) {
+    private File linkBuildToolsToVersion(@NotNull String version, @NotNull File folder, @NotNull File buildTools) {
         Main.log("Processing Version:\t" + version);
         try {
             final File versionBuildTools = new File(folder, "BuildTools - " + version + ".jar");
-            if (versionBuildTools.exists()) {
-                if (!versionBuildTools.delete()) {
-                    Main.error("Failed to delete the old BuildTools Jar, to ensure that this " +
-                            "process works flawlessly, we require the most up-to-date BuildTools Jar.");
-                    return null;
-                }
+            if (ContentStore.link(buildTools, versionBuildTools)) {
+                Main.debug(() -> "Linked " + buildTools.getName() + " to " + versionBuildTools.getName());
+            } else {
+                Main.log("Copied " + buildTools.getName() + " to " + versionBuildTools.getName());
             }
-            copyFile(buildTools.toPath(), versionBuildTools.toPath());
             return versionBuildTools;
         } catch (IOException e) {
+            Main.error("Failed to replace the old BuildTools Jar, to ensure that this " +
+                    "process works flawlessly, we require the most up-to-date BuildTools Jar.");
             Main.error("Experienced an " + e.getClass().getSimpleName() + " during version execution.");
             if (e.getMessage() != null) {
                 Main.error("Exception's Provided Message:\t" + e.getMessage());
@@ -0,0 +1,108 @@
+package cc.javajobs.buildtools.obj;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * The BuildResult class stands for the outcome of a single version-specific BuildTools execution.
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 09:12
+ */
+public class BuildResult {
+
+    /**
+     * The Version which was built.
+     */
+    private final MinecraftVersion version;
+
+    /**
+     * The Spigot Artifact which the build was expected to produce.
+     */
+    private final File artifact;
+
+    /**
+     * If the build produced its artifact.
+     */
+    private final boolean success;
+
+    /**
+     * The time (in milliseconds) the build took.
+     */
+    private final long duration;
+
+    /**
+     * Reason for failure, {@code null} if the build succeeded.
+     */
+    private final String reason;
+
+    /**
+     * The resources consumed by the build, {@code null} if they weren't sampled.
+     */
+    private final ResourceUsage usage;
+
+    /**
+     * Constructor to create a BuildResult.
+     *
+     * @param version  which was built.
+     * @param artifact expected from the build.
+     * @param success  of the build.
+     * @param duration of the build in milliseconds.
+     * @param reason   for failure, or {@code null}.
+     */
+    public BuildResult(@NotNull MinecraftVersion version, @NotNull File artifact,
+                       boolean success, long duration, @Nullable String reason) {
+        this(version, artifact, success, duration, reason, null);
+    }
+
+    /**
+     * Constructor to create a BuildResult with the resources the build consumed.
+     *
+     * @param version  which was built.
+     * @param artifact expected from the build.
+     * @param success  of the build.
+     * @param duration of the build in milliseconds.
+     * @param reason   for failure, or {@code null}.
+     * @param usage    of the build, or {@code null}.
+     */
+    public BuildResult(@NotNull MinecraftVersion version, @NotNull File artifact,
+                       boolean success, long duration, @Nullable String reason, @Nullable ResourceUsage usage) {
+        this.version = version;
+        this.artifact = artifact;
+        this.success = success;
+        this.duration = duration;
+        this.reason = reason;
+        this.usage = usage;
+    }
+
+    // Getters
+
+    public MinecraftVersion getVersion() {
+        return version;
+    }
+
+    public File getArtifact() {
+        return artifact;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    @Nullable
+    public String getReason() {
+        return reason;
+    }
+
+    @Nullable
+    public ResourceUsage getUsage() {
+        return usage;
+    }
+
+}
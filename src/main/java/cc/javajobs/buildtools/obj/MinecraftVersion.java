@@ -1,13 +1,22 @@
 package cc.javajobs.buildtools.obj;
 
+import cc.javajobs.buildtools.utils.MetadataCache;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +30,16 @@ import java.util.stream.Collectors;
  */
 public class MinecraftVersion implements Comparable<MinecraftVersion> {
 
+    /**
+     * The connect and read timeout (in milliseconds) used when resolving version data.
+     */
+    public static final int TIMEOUT = 15000;
+
+    /**
+     * Pattern matching a repository reference within the version JSON, for example '"Bukkit": "a1b2c3"'.
+     */
+    private static final Pattern REF = Pattern.compile("\"(BuildData|Bukkit|CraftBukkit|Spigot)\"\\s*:\\s*\"([^\"]+)\"");
+
     /**
      * MinecraftVersion data for the given version.
      */
@@ -41,6 +60,11 @@ public class MinecraftVersion implements Comparable<MinecraftVersion> {
      */
     private JavaVersion java = null;
 
+    /**
+     * The commit of each repository referenced by the version JSON.
+     */
+    private final Map<String, String> refs = new TreeMap<>();
+
     /**
      * Constructor to create a Minecraft Version.
      *
@@ -49,32 +73,78 @@ public class MinecraftVersion implements Comparable<MinecraftVersion> {
      * @throws IOException if the data cannot be extracted from the SpigotMC Hub.
      */
     public MinecraftVersion(String name, String url) throws IOException {
+        this(name, url, null);
+    }
+
+    /**
+     * Constructor to create a Minecraft Version, resolving the variables through the given cache.
+     *
+     * @param name  of the file (.json extension included) - pulled from SpigotMC.
+     * @param url   to resolve the variables from (SpigotMC Hub).
+     * @param cache to resolve the version JSON through, or {@code null} to always download it.
+     * @throws IOException if the data cannot be extracted from the SpigotMC Hub.
+     */
+    public MinecraftVersion(String name, String url, @Nullable MetadataCache cache) throws IOException {
         this.file = name;
-        name = name.replace(".json", "");
-        final String[] split = name.split("\\.");
+        final int[] parsed = parse(name);
+        this.rev = parsed[0];
+        this.major = parsed[1];
+        this.minor = parsed[2];
+        resolveVariables(url, cache);
+    }
+
+    /**
+     * Method to parse the revision, major and minor version from the given name, without resolving the version.
+     *
+     * @param name of the version, for example '1.19.2' or '1.19.2.json'.
+     * @return {rev, major, minor}, the minor version is {@code 0} for major releases (e.g. '1.13').
+     * @throws NumberFormatException if the name isn't a version.
+     */
+    public static int[] parse(@NotNull String name) {
+        final String[] split = name.replace(".json", "").split("\\.");
         if (split.length == 3) { // 1.1.1
-            this.rev = Integer.parseInt(split[0]);
-            this.major = Integer.parseInt(split[1]);
-            this.minor = Integer.parseInt(split[2]);
-        } else { // 1.1
-            this.rev = Integer.parseInt(split[0]);
-            this.major = Integer.parseInt(split[1]);
-            this.minor = 0;
+            return new int[]{Integer.parseInt(split[0]), Integer.parseInt(split[1]), Integer.parseInt(split[2])};
+        } else if (split.length == 2) { // 1.1
+            return new int[]{Integer.parseInt(split[0]), Integer.parseInt(split[1]), 0};
         }
-        resolveVariables(url);
+        throw new NumberFormatException("'" + name + "' is not a version");
     }
 
     /**
      * Method to determine the CraftBukkit commit data and the JavaVersion for the MinecraftVersion.
      *
-     * @param url pointing to the SpigotMC Hub - for data extraction.
+     * @param url   pointing to the SpigotMC Hub - for data extraction.
+     * @param cache to resolve the version JSON through, or {@code null} to always download it.
      * @throws IOException if the connection cannot be created.
      */
-    private void resolveVariables(String url) throws IOException {
-        final URL connect = new URL(url + file);
-        final BufferedReader in = new BufferedReader(new InputStreamReader(connect.openStream()));
+    private void resolveVariables(String url, @Nullable MetadataCache cache) throws IOException {
+        if (cache != null) {
+            try (BufferedReader in = new BufferedReader(new StringReader(cache.getVersionJson(url + file, file)))) {
+                readVariables(in);
+            }
+        } else {
+            final URLConnection connect = new URL(url + file).openConnection();
+            connect.setConnectTimeout(TIMEOUT);
+            connect.setReadTimeout(TIMEOUT);
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(connect.getInputStream()))) {
+                readVariables(in);
+            }
+        }
+        // Default the JavaVersion to JDK8 if it's not found (1.11.2 and prior do not list it).
+        if (this.java == null) java = JavaVersion.JAVA_8;
+    }
+
+    /**
+     * Method to read the repository references and the JavaVersion from the version JSON.
+     *
+     * @param in reader of the version JSON.
+     * @throws IOException if the JSON cannot be read.
+     */
+    private void readVariables(BufferedReader in) throws IOException {
         String str;
         while ((str = in.readLine()) != null) {
+            final Matcher ref = REF.matcher(str);
+            if (ref.find()) refs.put(ref.group(1), ref.group(2));
             if (str.contains("CraftBukkit")) {
                 this.cb = str.replace("\"CraftBukkit\":", "")
                         .replaceAll("\"", "")
@@ -87,12 +157,22 @@ public class MinecraftVersion implements Comparable<MinecraftVersion> {
                 this.java = versionsSupported.get(0);
             }
         }
-        // Default the JavaVersion to JDK8 if it's not found (1.11.2 and prior do not list it).
-        if (this.java == null) java = JavaVersion.JAVA_8;
     }
 
     // Getters
 
+    public int getRev() {
+        return rev;
+    }
+
+    public int getMajor() {
+        return major;
+    }
+
+    public int getMinor() {
+        return minor;
+    }
+
     public String getCraftBukkit() {
         return cb;
     }
@@ -101,6 +181,10 @@ public class MinecraftVersion implements Comparable<MinecraftVersion> {
         return java;
     }
 
+    public Map<String, String> getRefs() {
+        return Collections.unmodifiableMap(refs);
+    }
+
     public String getNMS() {
         return nms;
     }
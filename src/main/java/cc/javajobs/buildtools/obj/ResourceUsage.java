@@ -0,0 +1,70 @@
+package cc.javajobs.buildtools.obj;
+
+/**
+ * The ResourceUsage class stands for the resources consumed by a BuildTools process and every process it spawned.
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 18:40
+ */
+public class ResourceUsage {
+
+    /**
+     * The CPU time (in milliseconds, user and system) consumed by the process tree.
+     */
+    private final long cpuTime;
+
+    /**
+     * The peak resident memory (in bytes) of the process tree as a whole.
+     */
+    private final long peakRss;
+
+    /**
+     * The bytes read from and written to storage by the process tree.
+     */
+    private final long readBytes, writtenBytes;
+
+    /**
+     * The peak amount of processes in the tree.
+     */
+    private final int peakProcesses;
+
+    /**
+     * Constructor to create a ResourceUsage.
+     *
+     * @param cpuTime       of the process tree in milliseconds.
+     * @param peakRss       of the process tree in bytes.
+     * @param readBytes     read from storage.
+     * @param writtenBytes  written to storage.
+     * @param peakProcesses within the process tree.
+     */
+    public ResourceUsage(long cpuTime, long peakRss, long readBytes, long writtenBytes, int peakProcesses) {
+        this.cpuTime = cpuTime;
+        this.peakRss = peakRss;
+        this.readBytes = readBytes;
+        this.writtenBytes = writtenBytes;
+        this.peakProcesses = peakProcesses;
+    }
+
+    // Getters
+
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public long getPeakRss() {
+        return peakRss;
+    }
+
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    public int getPeakProcesses() {
+        return peakProcesses;
+    }
+
+}
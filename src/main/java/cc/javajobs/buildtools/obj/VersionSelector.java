@@ -0,0 +1,257 @@
+package cc.javajobs.buildtools.obj;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * The VersionSelector class stands for the versions the user has chosen to build.
+ * <p>
+ *     Versions can be selected by range ('1.17-1.19.2', either end may be omitted, '1.8.8' selects a single
+ *     version), by NMS revision ('v1_19_R1') and by the date their build definition last changed.
+ *     <br>A version must match every kind of selector which is present (and any one of the ranges or revisions).
+ *     <br>Only the newest version of each NMS revision is built, unless versions are selected by range, which
+ *     builds every version in the range (unless the latest per NMS revision is explicitly requested).
+ *     <br>Selectors are checked against the name (and listing date) of a version before it is resolved, so
+ *     unselected versions are never resolved, the NMS revision is checked again once a version is resolved.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 21:20
+ */
+public class VersionSelector {
+
+    /**
+     * The format of the date accepted by {@link #setSince(String)}.
+     */
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+
+    /**
+     * The selected ranges, as {lowest, highest} versions ({@code null} for an open end).
+     */
+    private final List<int[][]> ranges = new ArrayList<>();
+
+    /**
+     * The selected NMS revisions, without the leading 'v' (for example '1_19_R1').
+     */
+    private final Set<String> nms = new TreeSet<>();
+
+    /**
+     * The time (in milliseconds) a version's build definition must have changed since, {@code -1} for any time.
+     */
+    private long since = -1;
+
+    /**
+     * If only the newest version of each NMS revision is built, {@code null} for the default.
+     */
+    private Boolean latestPerNms = null;
+
+    /**
+     * Method to select the versions within the given ranges.
+     *
+     * @param spec comma separated ranges or versions, for example '1.17-1.19.2,1.8.8'.
+     * @throws IllegalArgumentException if a range or version is malformed.
+     */
+    public void addVersions(@NotNull String spec) {
+        for (String part : spec.split(",")) {
+            final String range = part.trim();
+            if (range.isEmpty()) continue;
+            final int dash = range.indexOf('-');
+            try {
+                if (dash == -1) {
+                    final int[] version = MinecraftVersion.parse(range);
+                    ranges.add(new int[][]{version, version});
+                } else {
+                    final String low = range.substring(0, dash).trim(), high = range.substring(dash + 1).trim();
+                    if (low.isEmpty() && high.isEmpty()) throw new NumberFormatException();
+                    ranges.add(new int[][]{low.isEmpty() ? null : MinecraftVersion.parse(low),
+                            high.isEmpty() ? null : MinecraftVersion.parse(high)});
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'" + range + "' is not a version or range of versions");
+            }
+        }
+    }
+
+    /**
+     * Method to select the versions of the given NMS revisions.
+     *
+     * @param spec comma separated revisions, for example 'v1_19_R1,v1_18_R2'.
+     * @throws IllegalArgumentException if a revision is malformed.
+     */
+    public void addNms(@NotNull String spec) {
+        for (String part : spec.split(",")) {
+            final String revision = part.trim().replaceFirst("^v", "");
+            if (revision.isEmpty()) continue;
+            if (!revision.matches("\\d+_\\d+_R\\d+")) {
+                throw new IllegalArgumentException("'" + part.trim() + "' is not an NMS revision (e.g. v1_19_R1)");
+            }
+            nms.add(revision);
+        }
+    }
+
+    /**
+     * Method to select the versions whose build definition changed on or after the given date.
+     *
+     * @param date formatted as 'yyyy-MM-dd'.
+     * @throws IllegalArgumentException if the date is malformed.
+     */
+    public void setSince(@NotNull String date) {
+        final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.ENGLISH);
+        format.setLenient(false);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            this.since = format.parse(date.trim()).getTime();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("'" + date + "' is not a date (" + DATE_FORMAT + ")");
+        }
+    }
+
+    /**
+     * Method to set if only the newest version of each NMS revision is built.
+     *
+     * @param latestPerNms {@code true} to only build the newest version of each NMS revision.
+     */
+    public void setLatestPerNms(boolean latestPerNms) {
+        this.latestPerNms = latestPerNms;
+    }
+
+    /**
+     * Method to check if any versions have been selected, rather than every version.
+     *
+     * @return {@code true} if any range, revision or date has been selected.
+     */
+    public boolean isActive() {
+        return !ranges.isEmpty() || !nms.isEmpty() || since != -1;
+    }
+
+    /**
+     * Method to check if a date has been selected, the dates of the listing are then required.
+     *
+     * @return {@code true} if a date has been selected.
+     */
+    public boolean isDateSelected() {
+        return since != -1;
+    }
+
+    /**
+     * Method to check if only the newest version of each NMS revision is built.
+     *
+     * @return {@code true} if requested, or by default when no ranges are selected.
+     */
+    public boolean isLatestPerNms() {
+        return latestPerNms != null ? latestPerNms : ranges.isEmpty();
+    }
+
+    /**
+     * Method to check if a version may be selected, before it is resolved.
+     *
+     * @param name     of the version, for example '1.19.2'.
+     * @param modified the time (in milliseconds) the version's build definition last changed, {@code -1} if unknown
+     *                 (an unknown time is accepted).
+     * @return {@code true} if the version should be resolved.
+     */
+    public boolean accepts(@NotNull String name, long modified) {
+        final int[] version;
+        try {
+            version = MinecraftVersion.parse(name);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (since != -1 && modified != -1 && modified < since) return false;
+        if (!inRange(version)) return false;
+        if (nms.isEmpty()) return true;
+        // An NMS revision only ever spans versions of its own major version (v1_19_R1 is 1.19 to 1.19.2).
+        for (String revision : nms) {
+            final String[] split = revision.split("_");
+            if (Integer.parseInt(split[0]) == version[0] && Integer.parseInt(split[1]) == version[1]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method to check if a resolved version is selected.
+     *
+     * @param version which was resolved.
+     * @return {@code true} if the version is selected.
+     */
+    public boolean accepts(@NotNull MinecraftVersion version) {
+        if (!inRange(new int[]{version.getRev(), version.getMajor(), version.getMinor()})) return false;
+        return nms.isEmpty() || (version.getNMS() != null && nms.contains(version.getNMS().replaceFirst("^v", "")));
+    }
+
+    /**
+     * Method to check if the given version is within any of the selected ranges.
+     *
+     * @param version as {rev, major, minor}.
+     * @return {@code true} if no ranges are selected or the version is within one.
+     */
+    private boolean inRange(@NotNull int[] version) {
+        if (ranges.isEmpty()) return true;
+        for (int[][] range : ranges) {
+            if ((range[0] == null || compare(version, range[0]) >= 0)
+                    && (range[1] == null || compare(version, range[1]) <= 0)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method to compare two versions, in ascending order.
+     *
+     * @param a first version as {rev, major, minor}.
+     * @param b second version as {rev, major, minor}.
+     * @return negative, zero or positive as the first version is lower, equal or higher.
+     */
+    private static int compare(@NotNull int[] a, @NotNull int[] b) {
+        for (int i = 0; i < 3; i++) {
+            final int result = Integer.compare(a[i], b[i]);
+            if (result != 0) return result;
+        }
+        return 0;
+    }
+
+    /**
+     * Method to describe the selection, for example 'versions 1.17-1.19.2, NMS v1_19_R1, since 2022-06-01'.
+     *
+     * @return the description of the selection.
+     */
+    @Override
+    public String toString() {
+        if (!isActive()) return "every version";
+        final List<String> parts = new ArrayList<>();
+        if (!ranges.isEmpty()) {
+            final List<String> described = new ArrayList<>();
+            for (int[][] range : ranges) {
+                if (range[0] == range[1]) described.add(format(range[0]));
+                else described.add((range[0] == null ? "" : format(range[0])) + "-"
+                        + (range[1] == null ? "" : format(range[1])));
+            }
+            parts.add("versions " + String.join(",", described));
+        }
+        if (!nms.isEmpty()) {
+            final List<String> described = new ArrayList<>();
+            nms.forEach(revision -> described.add("v" + revision));
+            parts.add("NMS " + String.join(",", described));
+        }
+        if (since != -1) {
+            final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.ENGLISH);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            parts.add("since " + format.format(new Date(since)));
+        }
+        return String.join(", ", parts) + (isLatestPerNms() ? " (latest per NMS revision)" : "");
+    }
+
+    /**
+     * Method to format a version like Minecraft does (1.18.2 etc. etc.).
+     *
+     * @param version as {rev, major, minor}.
+     * @return the formatted version.
+     */
+    @NotNull
+    private static String format(@NotNull int[] version) {
+        return version[0] + "." + version[1] + (version[2] == 0 ? "" : "." + version[2]);
+    }
+
+}
@@ -0,0 +1,239 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.JavaVersion;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The AdmissionController decides how much heap each BuildTools process receives and if it fits in memory.
+ * <p>
+ *     Each version is given a heap from a profile based on the Java version it requires (older versions need far
+ *     less than the versions which remap the server), its projected footprint is the largest peak resident memory
+ *     recorded for its builds (a build which finds nothing to compile peaks far lower) or, if unknown, a multiple of
+ *     its heap (BuildTools spawns Maven and git too).
+ *     <br>A build is only admitted when its footprint fits into the {@link #budget} alongside the builds which are
+ *     already running, a build is always admitted when nothing else is running.
+ *     <br>When no budget is configured, the available memory is also read again before each build is admitted, so
+ *     memory taken by other processes since the budget was measured isn't handed to another build.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 16:55
+ */
+public class AdmissionController {
+
+    /**
+     * The number of bytes in a megabyte.
+     */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * The projected footprint of a build as a multiple of its heap, when no peak has been recorded.
+     */
+    private static final int FOOTPRINT_FACTOR = 3;
+
+    /**
+     * The share of the available memory which is budgeted for builds, the rest is left for the system.
+     */
+    private static final double BUDGET_SHARE = 0.9;
+
+    /**
+     * The memory (in bytes) the running builds may use.
+     */
+    private final long budget;
+
+    /**
+     * {@code true} if the {@link #budget} was measured from the available memory rather than configured.
+     */
+    private final boolean measured;
+
+    /**
+     * The file the peak footprint of each version is stored as.
+     */
+    private final File file;
+
+    /**
+     * The largest peak footprint (in bytes) recorded for each version.
+     */
+    private final Properties peaks = new Properties();
+
+    /**
+     * The footprint (in bytes) reserved by each running build.
+     */
+    private final Map<String, Long> admitted = new HashMap<>();
+
+    /**
+     * The footprint (in bytes) reserved by the running builds.
+     */
+    private long reserved = 0;
+
+    /**
+     * Constructor to create an AdmissionController.
+     *
+     * @param file   to store the peak footprint of each version as.
+     * @param budget the memory (in bytes) the running builds may use, or {@code -1} to use a share of the
+     *               currently available memory.
+     */
+    public AdmissionController(@NotNull File file, long budget) {
+        this.file = file;
+        this.measured = budget <= 0;
+        this.budget = measured ? (long) (getAvailableMemory() * BUDGET_SHARE) : budget;
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                peaks.load(in);
+            } catch (IOException e) {
+                Main.debug(() -> "Failed to read the build memory history: " + e.getMessage());
+            }
+        }
+        Main.log("Budgeting " + (this.budget / MEGABYTE) + " MB of memory for builds.");
+    }
+
+    /**
+     * Method to obtain the memory which is available for new processes.
+     * <p>
+     *     'MemAvailable' is read from '/proc/meminfo' (it includes reclaimable caches), other systems fall back to
+     *     the free physical memory reported by the JVM.
+     * </p>
+     *
+     * @return the available memory in bytes.
+     */
+    @SuppressWarnings("deprecation") // Its replacement (getFreeMemorySize) doesn't exist on Java 8.
+    public static long getAvailableMemory() {
+        final File meminfo = new File("/proc/meminfo");
+        if (meminfo.exists()) {
+            try {
+                for (String line : Files.readAllLines(meminfo.toPath(), StandardCharsets.UTF_8)) {
+                    if (!line.startsWith("MemAvailable:")) continue;
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            } catch (IOException | NumberFormatException e) {
+                Main.debug(() -> "Failed to read '/proc/meminfo': " + e.getMessage());
+            }
+        }
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getFreePhysicalMemorySize();
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Method to obtain the maximum heap (in megabytes) of the BuildTools process for the given version.
+     *
+     * @param version to build.
+     * @return the heap in megabytes.
+     */
+    public int getHeap(@NotNull MinecraftVersion version) {
+        final JavaVersion java = version.getJava();
+        if (java == null || java == JavaVersion.JAVA_8) return 512;
+        if (java == JavaVersion.JAVA_16) return 1024;
+        return 1536;
+    }
+
+    /**
+     * Method to project the peak memory (in bytes) used whilst building the given version.
+     *
+     * @param version to build.
+     * @return the projected footprint in bytes.
+     */
+    public synchronized long getFootprint(@NotNull MinecraftVersion version) {
+        try {
+            final long peak = Long.parseLong(peaks.getProperty(version.toString(), "-1"));
+            if (peak > 0) return peak;
+        } catch (NumberFormatException ignored) {
+        }
+        return FOOTPRINT_FACTOR * getHeap(version) * MEGABYTE;
+    }
+
+    /**
+     * Method to reserve the footprint of the given version if it fits into the budget.
+     * <p>
+     *     A measured budget is only the ceiling, the footprint must also fit into a share of the memory which is
+     *     available now (running builds are already counted within it, as are other processes).
+     * </p>
+     *
+     * @param version to admit.
+     * @return {@code true} if the build may start, its footprint must then be {@link #release(MinecraftVersion)}d.
+     */
+    public synchronized boolean tryAdmit(@NotNull MinecraftVersion version) {
+        final long footprint = getFootprint(version);
+        if (!admitted.isEmpty()) {
+            if (reserved + footprint > budget) return false;
+            if (measured && footprint > getAvailableMemory() * BUDGET_SHARE) {
+                Main.debug(() -> "Deferred " + version + " as " + (footprint / MEGABYTE)
+                        + " MB is no longer available.");
+                return false;
+            }
+        }
+        admitted.put(version.toString(), footprint);
+        reserved += footprint;
+        Main.debug(() -> "Admitted " + version + " (" + (footprint / MEGABYTE) + " MB projected, "
+                + (reserved / MEGABYTE) + "/" + (budget / MEGABYTE) + " MB reserved).");
+        return true;
+    }
+
+    /**
+     * Method to release the footprint reserved for the given version once its build finishes.
+     *
+     * @param version which finished.
+     */
+    public synchronized void release(@NotNull MinecraftVersion version) {
+        final Long footprint = admitted.remove(version.toString());
+        if (footprint != null) reserved -= footprint;
+    }
+
+    /**
+     * Method to record the peak memory (in bytes) used whilst building the given version and store it atomically.
+     * <p>
+     *     Only a peak larger than the recorded peak is stored, so a build which found nothing to compile never
+     *     lowers the footprint the next full build is admitted with.
+     *     <br>The footprint reserved for a running build is released using the projection it was admitted with.
+     * </p>
+     *
+     * @param version which was built.
+     * @param peak    memory in bytes.
+     */
+    public synchronized void recordPeak(@NotNull MinecraftVersion version, long peak) {
+        if (peak <= 0) return;
+        try {
+            if (peak <= Long.parseLong(peaks.getProperty(version.toString(), "-1"))) return;
+        } catch (NumberFormatException ignored) {
+        }
+        peaks.setProperty(version.toString(), String.valueOf(peak));
+        try {
+            final File parent = file.getAbsoluteFile().getParentFile();
+            if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Failed to create '" + parent.getPath() + "'");
+            }
+            final Path temp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                peaks.store(out, "BuildTools - Master peak build memory (bytes)");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Main.error("Failed to store the build memory history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to obtain the memory the running builds may use.
+     *
+     * @return {@link #budget} in bytes.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+}
@@ -0,0 +1,34 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.obj.BuildResult;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The BuildListener interface is notified by the {@link BuildScheduler} as each build progresses.
+ * <p>
+ *     Listeners are called on the worker running the build, before the build's result is completed, the build's
+ *     slot is held until they return, so lengthy work should be handed to another executor.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 15:40
+ */
+public interface BuildListener {
+
+    /**
+     * Called just before BuildTools is started for the given version.
+     *
+     * @param version being built.
+     */
+    default void onStart(@NotNull MinecraftVersion version) {
+    }
+
+    /**
+     * Called once a build has finished, including builds whose prerequisites failed.
+     *
+     * @param result of the build.
+     */
+    void onComplete(@NotNull BuildResult result);
+
+}
@@ -0,0 +1,53 @@
+package cc.javajobs.buildtools.tasks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The BuildOrder enum stands for the policy the {@link BuildScheduler} uses to pick the next build.
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 16:35
+ */
+public enum BuildOrder {
+
+    /**
+     * Builds are started in the order they are submitted.
+     */
+    SUBMISSION("version"),
+
+    /**
+     * The build expected to take the longest is started first, so the slowest builds don't run alone at the end.
+     */
+    LONGEST_FIRST("longest");
+
+    /**
+     * The name of the policy on the command line.
+     */
+    private final String name;
+
+    BuildOrder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Method to obtain the policy with the given command line name.
+     *
+     * @param name of the policy.
+     * @return {@link BuildOrder} or {@code null} if there is no such policy.
+     */
+    @Nullable
+    public static BuildOrder getByName(@NotNull String name) {
+        for (BuildOrder order : values()) {
+            if (order.name.equalsIgnoreCase(name)) return order;
+        }
+        return null;
+    }
+
+    // Getters
+
+    public String getName() {
+        return name;
+    }
+
+}
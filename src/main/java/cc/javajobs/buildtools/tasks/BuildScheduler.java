@@ -0,0 +1,530 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.BuildResult;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import cc.javajobs.buildtools.obj.ResourceUsage;
+import cc.javajobs.buildtools.utils.DurationHistory;
+import cc.javajobs.buildtools.utils.Metrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The BuildScheduler runs several {@link BuildToolsThread} child processes at once.
+ * <p>
+ *     Builds are submitted with their prerequisites (the JDK and Maven they require) as a {@link CompletableFuture},
+ *     a build becomes runnable as soon as its own prerequisites are ready.
+ *     <br>Runnable builds are started according to the {@link BuildOrder}, either in the order they are submitted
+ *     (the order provided by the {@link cc.javajobs.buildtools.utils.SpigotVersionCollector}) or longest expected
+ *     build first (using the {@link DurationHistory}), and at most {@link #parallelism} builds are running at any
+ *     one time.
+ *     <br>Results are returned in submission order, regardless of the order the builds finish in.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 09:20
+ */
+public class BuildScheduler {
+
+    /**
+     * The number of bytes in a megabyte.
+     */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * The maximum amount of builds running at once.
+     */
+    private final int parallelism;
+
+    /**
+     * The history used to estimate each build and record its duration, {@code null} if durations aren't tracked.
+     */
+    private final DurationHistory history;
+
+    /**
+     * The policy used to pick the next build.
+     */
+    private final BuildOrder order;
+
+    /**
+     * The builds which have not been started yet, in submission order.
+     */
+    private final LinkedList<Job> pending = new LinkedList<>();
+
+    /**
+     * Every submitted build, in submission order.
+     */
+    private final List<Job> jobs = new ArrayList<>();
+
+    /**
+     * The time (in milliseconds) the scheduler was created.
+     */
+    private final long created = System.currentTimeMillis();
+
+    /**
+     * The time (in milliseconds) the first build started, {@code -1} if no build has started.
+     */
+    private volatile long firstStarted = -1;
+
+    /**
+     * Decides if each build fits into memory and the heap it receives, {@code null} if memory isn't managed.
+     */
+    private volatile AdmissionController admission;
+
+    /**
+     * Notified as each build progresses, may be {@code null}.
+     */
+    private volatile BuildListener listener;
+
+    /**
+     * If the workers have been started.
+     */
+    private boolean running = false;
+
+    /**
+     * If no more builds will be submitted.
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructor to create a BuildScheduler.
+     *
+     * @param parallelism the maximum amount of builds running at once.
+     * @throws IllegalArgumentException if the parallelism is less than 1.
+     */
+    public BuildScheduler(int parallelism) {
+        this(parallelism, null, BuildOrder.SUBMISSION);
+    }
+
+    /**
+     * Constructor to create a BuildScheduler which tracks the duration of each build.
+     *
+     * @param parallelism the maximum amount of builds running at once.
+     * @param history     to estimate and record the duration of each build, or {@code null}.
+     * @param order       the policy used to pick the next build.
+     * @throws IllegalArgumentException if the parallelism is less than 1.
+     */
+    public BuildScheduler(int parallelism, @Nullable DurationHistory history, @NotNull BuildOrder order) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.parallelism = parallelism;
+        this.history = history;
+        this.order = history == null ? BuildOrder.SUBMISSION : order;
+    }
+
+    /**
+     * Method to determine the default parallelism for this machine.
+     * <p>
+     *     The default is half of the available processors (BuildTools spawns git and Maven too), memory is
+     *     managed separately by the {@link AdmissionController}.
+     * </p>
+     *
+     * @return the default parallelism, at least 1.
+     */
+    public static int defaultParallelism() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Method to order the given versions according to the {@link #order}, before they are submitted.
+     * <p>
+     *     Builds are started as soon as they are submitted, submitting the longest builds first therefore lets
+     *     the earliest builds follow the policy too.
+     * </p>
+     *
+     * @param versions to order.
+     * @return {@link List} of the versions in the order they should be submitted.
+     */
+    @NotNull
+    public List<MinecraftVersion> sort(@NotNull List<MinecraftVersion> versions) {
+        final List<MinecraftVersion> sorted = new ArrayList<>(versions);
+        if (order == BuildOrder.LONGEST_FIRST) {
+            sorted.sort(Comparator.comparingLong(history::estimate).reversed());
+        }
+        return sorted;
+    }
+
+    /**
+     * Method to submit a build which is ready to run.
+     *
+     * @param version  being built.
+     * @param thread   which runs BuildTools for the version.
+     * @param artifact which the build is expected to produce.
+     */
+    public void submit(@NotNull MinecraftVersion version, @NotNull BuildToolsThread thread, @NotNull File artifact) {
+        submit(version, CompletableFuture.completedFuture(thread), artifact);
+    }
+
+    /**
+     * Method to submit a build which runs once its prerequisites are ready.
+     * <p>
+     *     If the prerequisites fail (or complete with {@code null}), the build fails without starting BuildTools.
+     * </p>
+     *
+     * @param version  being built.
+     * @param thread   completing with the thread which runs BuildTools for the version.
+     * @param artifact which the build is expected to produce.
+     */
+    public void submit(@NotNull MinecraftVersion version, @NotNull CompletableFuture<BuildToolsThread> thread,
+                       @NotNull File artifact) {
+        final Job job = new Job(version, thread, artifact, history == null ? 0 : history.estimate(version));
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Builds cannot be submitted after awaitCompletion()");
+            jobs.add(job);
+            pending.add(job);
+            Metrics.buildQueued();
+            if (!running) {
+                running = true;
+                for (int i = 1; i <= parallelism; i++) {
+                    final Thread worker = new Thread(this::work, "BuildTools-Build-" + i);
+                    worker.setDaemon(true);
+                    worker.start();
+                }
+            }
+        }
+        // Wake the workers once the prerequisites are ready.
+        thread.whenComplete((result, throwable) -> {
+            synchronized (this) {
+                notifyAll();
+            }
+        });
+    }
+
+    /**
+     * Method to wait for every submitted build and report the outcome of the sweep.
+     *
+     * @return {@link List} of {@link BuildResult}s in submission order.
+     * @throws InterruptedException if the wait is interrupted.
+     */
+    @NotNull
+    public List<BuildResult> awaitCompletion() throws InterruptedException {
+        final List<Job> submitted;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            submitted = new ArrayList<>(jobs);
+        }
+        final long predicted = predict(submitted);
+        final List<BuildResult> results = new ArrayList<>();
+        for (Job job : submitted) {
+            try {
+                results.add(job.result.join());
+            } catch (CompletionException e) {
+                Main.error("Experienced an error whilst scheduling a build: " + e.getCause());
+            }
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+        if (!results.isEmpty()) report(results, System.currentTimeMillis() - created, predicted);
+        return results;
+    }
+
+    /**
+     * Method to set the controller which admits each build once it fits into memory.
+     *
+     * @param admission to admit builds with, or {@code null} to only limit the amount of builds.
+     */
+    public void setAdmissionController(@Nullable AdmissionController admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Method to set the listener notified as each build progresses.
+     *
+     * @param listener to notify, or {@code null} to remove it.
+     */
+    public void setListener(@Nullable BuildListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Method to obtain the maximum amount of builds running at once.
+     *
+     * @return {@link #parallelism}.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The loop of each worker, taking and running builds until the scheduler is closed and drained.
+     */
+    private void work() {
+        Job job;
+        while ((job = take()) != null) complete(job);
+    }
+
+    /**
+     * Method to run the given build (if its prerequisites are ready) and complete its result.
+     *
+     * @param job to complete.
+     */
+    private void complete(@NotNull Job job) {
+        final BuildToolsThread thread = job.thread.isCompletedExceptionally() ? null : job.thread.getNow(null);
+        BuildResult result;
+        if (thread == null) {
+            Main.error("Skipping the build for " + job.version + " as its prerequisites failed.");
+            result = new BuildResult(job.version, job.artifact, false, 0, "Prerequisites (JDK/Maven) failed");
+        } else {
+            final AdmissionController admission = this.admission;
+            try {
+                if (admission != null) thread.setMaxHeap(admission.getHeap(job.version));
+                dispatch(listener -> listener.onStart(job.version), job);
+                Metrics.buildStarted();
+                result = run(job, thread);
+                if (admission != null && result.isSuccess() && result.getUsage() != null) {
+                    admission.recordPeak(job.version, result.getUsage().getPeakRss());
+                }
+            } catch (Throwable throwable) {
+                result = new BuildResult(job.version, job.artifact, false, 0, "Scheduler error: " + throwable);
+            } finally {
+                if (admission != null) {
+                    admission.release(job.version);
+                    synchronized (this) {
+                        notifyAll(); // Waiting builds may fit now.
+                    }
+                }
+            }
+        }
+        Metrics.buildFinished(job.version.toString(), thread != null, result.isSuccess(), result.getDuration());
+        final BuildResult completed = result;
+        dispatch(listener -> listener.onComplete(completed), job);
+        job.result.complete(result);
+    }
+
+    /**
+     * Method to notify the {@link #listener} (if any) about the given build.
+     *
+     * @param notification to deliver to the listener.
+     * @param job          which the notification is about.
+     */
+    private void dispatch(@NotNull Consumer<BuildListener> notification, @NotNull Job job) {
+        final BuildListener listener = this.listener;
+        if (listener == null) return;
+        try {
+            notification.accept(listener);
+        } catch (Throwable throwable) {
+            Main.error("Experienced an error whilst handling the build for " + job.version + ": " + throwable);
+        }
+    }
+
+    /**
+     * Method to take the next build whose prerequisites have completed, according to the {@link #order}.
+     * <p>
+     *     Builds expected to take equally long are taken in submission order.
+     *     <br>If an {@link #admission} controller is present, a build is only taken once it fits into memory,
+     *     a smaller build may therefore be taken ahead of a larger one.
+     * </p>
+     *
+     * @return {@link Job} or {@code null} if the scheduler is closed and no builds remain.
+     */
+    @Nullable
+    private synchronized Job take() {
+        while (true) {
+            final List<Job> ready = new ArrayList<>();
+            for (Job job : pending) {
+                if (job.thread.isDone()) ready.add(job);
+            }
+            if (order == BuildOrder.LONGEST_FIRST) {
+                ready.sort(Comparator.comparingLong((Job job) -> job.estimate).reversed());
+            }
+            for (Job job : ready) {
+                final boolean failed = job.thread.isCompletedExceptionally() || job.thread.getNow(null) == null;
+                if (failed || admission == null || admission.tryAdmit(job.version)) {
+                    pending.remove(job);
+                    return job;
+                }
+            }
+            if (closed && pending.isEmpty()) return null;
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Method to run the given build.
+     *
+     * @param job    to run.
+     * @param thread which runs BuildTools for the version.
+     * @return {@link BuildResult} of the build.
+     */
+    @NotNull
+    private BuildResult run(@NotNull Job job, @NotNull BuildToolsThread thread) {
+        final long start = System.currentTimeMillis();
+        if (firstStarted == -1) {
+            firstStarted = start;
+            Main.log("First build started " + formatDuration(start - created) + " after the scheduler was created.");
+        }
+        Main.log("Starting the build for " + job.version + ".");
+        thread.run();
+        final long diff = System.currentTimeMillis() - start;
+        final ResourceUsage usage = thread.getUsage();
+        if (thread.getFailure() != null) {
+            Main.error("The build for " + job.version + " was killed: " + thread.getFailure() + ".");
+            return new BuildResult(job.version, job.artifact, false, diff, thread.getFailure(), usage);
+        }
+        if (thread.getExitCode() != 0) {
+            Main.error("BuildTools exited with code " + thread.getExitCode() + " whilst building " + job.version + ".");
+            return new BuildResult(job.version, job.artifact, false, diff,
+                    "BuildTools exit code " + thread.getExitCode(), usage);
+        }
+        if (!job.artifact.exists()) {
+            Main.error("Failed to produce the Spigot Artifact for " + job.version + ", this probably means there was an error.");
+            return new BuildResult(job.version, job.artifact, false, diff, "Artifact missing", usage);
+        }
+        // An artifact older than the build was left by a previous build (modification times may lack milliseconds).
+        if (!thread.isUnchanged() && job.artifact.lastModified() < start - start % 1000) {
+            Main.error("The Spigot Artifact for " + job.version + " wasn't rewritten by its build.");
+            return new BuildResult(job.version, job.artifact, false, diff, "Artifact not rewritten (stale)", usage);
+        }
+        Main.log("Took " + formatDuration(diff) + " to compile " + job.artifact.getName() + " ("
+                + thread.getPhases().entrySet().stream()
+                .map(phase -> phase.getKey() + " " + formatDuration(phase.getValue()))
+                .collect(Collectors.joining(", ")) + ")" + (usage == null ? "" : ", using " + formatUsage(usage)) + ".");
+        // A build which found nothing to compile says nothing about how long the version takes to build.
+        if (history != null && !thread.isUnchanged()) history.record(job.version, diff);
+        return new BuildResult(job.version, job.artifact, true, diff, null, usage);
+    }
+
+    /**
+     * Method to predict the wall-clock time of the given builds.
+     * <p>
+     *     The builds are assigned (according to the {@link #order}) to whichever of the {@link #parallelism} slots
+     *     becomes free first, assuming every prerequisite is ready.
+     * </p>
+     *
+     * @param submitted builds to predict.
+     * @return the predicted wall-clock time in milliseconds, {@code -1} if durations aren't tracked.
+     */
+    private long predict(@NotNull List<Job> submitted) {
+        if (history == null) return -1;
+        final List<Long> estimates = new ArrayList<>();
+        submitted.forEach(job -> estimates.add(job.estimate));
+        if (order == BuildOrder.LONGEST_FIRST) estimates.sort(Comparator.reverseOrder());
+        final PriorityQueue<Long> slots = new PriorityQueue<>();
+        for (int i = 0; i < parallelism; i++) slots.add(0L);
+        long makespan = 0;
+        for (long estimate : estimates) {
+            final long finish = slots.poll() + estimate;
+            makespan = Math.max(makespan, finish);
+            slots.add(finish);
+        }
+        return makespan;
+    }
+
+    /**
+     * Method to log the per-version outcome and the total/summed timings.
+     *
+     * @param results   of the sweep.
+     * @param wallClock of the sweep in milliseconds.
+     * @param predicted wall-clock time of the builds in milliseconds, {@code -1} if it wasn't predicted.
+     */
+    private void report(@NotNull List<BuildResult> results, long wallClock, long predicted) {
+        long sum = 0, cpuTime = 0, peakRss = 0;
+        int succeeded = 0;
+        Main.log("Build Summary:");
+        for (BuildResult result : results) {
+            sum += result.getDuration();
+            final ResourceUsage usage = result.getUsage();
+            if (usage != null) {
+                cpuTime += usage.getCpuTime();
+                peakRss = Math.max(peakRss, usage.getPeakRss());
+            }
+            final String detail = formatDuration(result.getDuration()) + (usage == null ? "" : ", " + formatUsage(usage));
+            if (result.isSuccess()) {
+                succeeded++;
+                Main.log(result.getVersion() + ":\tSUCCESS (" + detail + ")");
+            } else {
+                Main.error(result.getVersion() + ":\tFAILED (" + detail + ") - " + result.getReason());
+            }
+        }
+        Main.log(succeeded + "/" + results.size() + " versions built successfully using " + parallelism + " parallel builds.");
+        Main.log("Total wall-clock time:\t" + formatDuration(wallClock)
+                + "\tSum of build times:\t" + formatDuration(sum));
+        if (cpuTime > 0) {
+            Main.log("Total CPU time:\t" + formatDuration(cpuTime) + "\tLargest build:\t" + (peakRss / MEGABYTE) + " MB");
+        }
+        if (predicted != -1 && firstStarted != -1) {
+            Main.log("Predicted build wall-clock time:\t" + formatDuration(predicted) + "\tActual:\t"
+                    + formatDuration(System.currentTimeMillis() - firstStarted) + " (" + order.getName() + " order)");
+        }
+    }
+
+    /**
+     * Method to format the given milliseconds as 'Xm Ys'.
+     *
+     * @param millis to format.
+     * @return formatted duration.
+     */
+    @NotNull
+    public static String formatDuration(long millis) {
+        final long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        final long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) - TimeUnit.MINUTES.toSeconds(minutes);
+        return minutes + "m " + seconds + "s";
+    }
+
+    /**
+     * Method to format the given usage as 'cpu Xm Ys, peak N MB, read N MB, written N MB'.
+     *
+     * @param usage to format.
+     * @return formatted usage.
+     */
+    @NotNull
+    public static String formatUsage(@NotNull ResourceUsage usage) {
+        return "cpu " + formatDuration(usage.getCpuTime()) + ", peak " + (usage.getPeakRss() / MEGABYTE) + " MB, read "
+                + (usage.getReadBytes() / MEGABYTE) + " MB, written " + (usage.getWrittenBytes() / MEGABYTE) + " MB";
+    }
+
+    /**
+     * A build submitted to the scheduler.
+     */
+    private static class Job {
+
+        /**
+         * The Version being built.
+         */
+        private final MinecraftVersion version;
+
+        /**
+         * Completes with the thread which runs BuildTools once the prerequisites are ready.
+         */
+        private final CompletableFuture<BuildToolsThread> thread;
+
+        /**
+         * The Spigot Artifact which the build is expected to produce.
+         */
+        private final File artifact;
+
+        /**
+         * The expected duration (in milliseconds) of the build.
+         */
+        private final long estimate;
+
+        /**
+         * Completes with the result of the build.
+         */
+        private final CompletableFuture<BuildResult> result = new CompletableFuture<>();
+
+        private Job(MinecraftVersion version, CompletableFuture<BuildToolsThread> thread, File artifact, long estimate) {
+            this.version = version;
+            this.thread = thread;
+            this.artifact = artifact;
+            this.estimate = estimate;
+        }
+
+    }
+
+}
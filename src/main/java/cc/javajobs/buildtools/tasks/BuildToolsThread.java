@@ -1,10 +1,18 @@
 package cc.javajobs.buildtools.tasks;
 
 import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.ResourceUsage;
+import cc.javajobs.buildtools.utils.AsyncLogger;
+import cc.javajobs.buildtools.utils.IndexLockScanner;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Thread which calls each version-specific BuildTools jar.
@@ -14,6 +22,31 @@ import java.io.IOException;
  */
 public class BuildToolsThread implements Runnable {
 
+    /**
+     * The folder each version's output log and phase timings are written to.
+     */
+    public static final File LOG_FOLDER = new File("./Logs/");
+
+    /**
+     * The interval (in milliseconds) the watchdog checks the BuildTools process at.
+     */
+    private static final long WATCHDOG_INTERVAL = 5000;
+
+    /**
+     * The time (in milliseconds) the remaining output is read for once the process has exited.
+     */
+    private static final long OUTPUT_GRACE = 10000;
+
+    /**
+     * The time (in milliseconds) a killed process is given to exit before it is abandoned.
+     */
+    private static final long KILL_GRACE = 30000;
+
+    /**
+     * The line BuildTools prints when '--compile-if-changed' finds nothing to compile, leaving the jar untouched.
+     */
+    private static final String UNCHANGED_MARKER = "No changes detected in any of the repositories";
+
     /**
      * The working files for the thread.
      */
@@ -29,6 +62,51 @@ public class BuildToolsThread implements Runnable {
      */
     private String mavenInstallation;
 
+    /**
+     * The exit code of the BuildTools process, {@code -1} if it never completed.
+     */
+    private volatile int exitCode = -1;
+
+    /**
+     * The maximum heap (in megabytes) of the BuildTools process.
+     */
+    private volatile int maxHeap = 512;
+
+    /**
+     * Tracks the phases of the BuildTools process.
+     */
+    private final PhaseTracker phases = new PhaseTracker();
+
+    /**
+     * The time (in milliseconds) without output after which the process is considered stalled, {@code 0} to disable.
+     */
+    private volatile long stallTimeout = 0;
+
+    /**
+     * The time (in milliseconds) the process may run for in total, {@code 0} to disable.
+     */
+    private volatile long buildTimeout = 0;
+
+    /**
+     * The time (in milliseconds) the process last produced output.
+     */
+    private volatile long lastOutput;
+
+    /**
+     * The reason the watchdog killed the process, {@code null} if it wasn't killed.
+     */
+    private volatile String failure = null;
+
+    /**
+     * The resources consumed by the process tree, {@code null} if they couldn't be sampled.
+     */
+    private volatile ResourceUsage usage = null;
+
+    /**
+     * If BuildTools found nothing to compile, keeping the Spigot Artifact of the previous build.
+     */
+    private volatile boolean unchanged = false;
+
     public BuildToolsThread(@NotNull File java, @NotNull String version,
                             @NotNull File workingDirectory, @NotNull File buildTools,
                             @NotNull File mvn) {
@@ -41,38 +119,205 @@ public class BuildToolsThread implements Runnable {
         } catch (IOException e) {
             this.mavenInstallation = mvn.getAbsolutePath();
         }
-        Main.debug("Set Maven Directory to: " + mavenInstallation);
+        Main.debug(() -> "Set Maven Directory to: " + mavenInstallation);
     }
 
     /**
      * The function of this thread is to run the BuildTools Jar linked to the version.
      * <p>
      *     Using {@link ProcessBuilder}, the command is specified as:
-     *     <br>'java -jar -Xmx512M {@link #buildTools} --rev {@link #version} --compile-If-Changed'
-     *     <br>This thread also consumes the IO of the Java Process, enabling the output of
-     *     the BuildTools jar to be sent through this one.
+     *     <br>'java -jar -Xmx{@link #maxHeap}M {@link #buildTools} --rev {@link #version} --compile-If-Changed'
+     *     <br>The output of the Java Process is consumed by a separate thread, which tracks the phases of the build
+     *     and hands each line to the {@link AsyncLogger} (echoing it prefixed with the version and writing it to
+     *     '{@link #LOG_FOLDER}/version.log'), the timing of each phase is written to '{@link #LOG_FOLDER}/version-phases.json' once the process exits.
+     *     <br>Whilst the process runs, a watchdog kills the process (and every process it spawned) if it produces
+     *     no output for {@link #stallTimeout} or runs for longer than {@link #buildTimeout} (abandoning it if it
+     *     doesn't exit within {@link #KILL_GRACE} of being killed), and a
+     *     {@link ResourceSampler} measures the resources consumed by the process and every process it spawned.
      * </p>
      */
     @Override
     public void run() {
+        ResourceSampler sampler = null;
         try {
             final ProcessBuilder builder = new ProcessBuilder(java.toString(),
-                    "-jar", "-Xmx512M", buildTools.getName(),
+                    "-jar", "-Xmx" + maxHeap + "M", buildTools.getName(),
                     "--rev", version,
                     "--compile-if-changed" // Only do the hard work if we need to.
             );
             builder.environment().put("M2_HOME", mavenInstallation); // Set Maven Install here.
             builder.directory(workingDirectory);
-            builder.inheritIO();
+            builder.redirectErrorStream(true);
+            builder.redirectInput(ProcessBuilder.Redirect.INHERIT);
             final Process process = builder.start();
-            process.waitFor(); // Delay the completion of this task until it's done.
+            phases.start();
+            final long pid = ProcessTree.getPid(process);
+            if (ResourceSampler.isSupported(pid)) {
+                sampler = new ResourceSampler(pid, version);
+                sampler.start();
+            }
+            final InputStream output = process.getInputStream();
+            final long start = System.currentTimeMillis();
+            lastOutput = start;
+            final Thread pump = new Thread(() -> pump(output), "BuildTools-Output-" + version);
+            pump.setDaemon(true);
+            pump.start();
+            // Delay the completion of this task until it's done, or the watchdog gives up on it.
+            while (!process.waitFor(WATCHDOG_INTERVAL, TimeUnit.MILLISECONDS)) {
+                final long now = System.currentTimeMillis();
+                if (stallTimeout > 0 && now - lastOutput > stallTimeout) {
+                    failure = "Stalled (no output for " + BuildScheduler.formatDuration(now - lastOutput) + ")";
+                } else if (buildTimeout > 0 && now - start > buildTimeout) {
+                    failure = "Timed out after " + BuildScheduler.formatDuration(now - start);
+                } else continue;
+                Main.error("Killing the build for " + version + ": " + failure + ".");
+                ProcessTree.kill(process);
+                if (!process.waitFor(KILL_GRACE, TimeUnit.MILLISECONDS)) {
+                    // For example, stuck in uninterruptible I/O, the slot is released rather than waiting forever.
+                    failure += ", and didn't exit within " + BuildScheduler.formatDuration(KILL_GRACE)
+                            + " of being killed";
+                    Main.error("The build for " + version + " didn't exit once killed, abandoning it.");
+                    break;
+                }
+                new IndexLockScanner().scan(Collections.singletonList(workingDirectory)); // Left by the killed git.
+                break;
+            }
+            if (!process.isAlive()) exitCode = process.exitValue();
+            // The remaining output is read once the process exits, a surviving child holding the output open
+            // leaves the (daemon) pump blocked in a read which closing the stream wouldn't interrupt, it is
+            // abandoned and ends once that child closes the output.
+            pump.join(OUTPUT_GRACE);
         } catch (Exception e) {
             Main.error("Experienced an error during BuildTools execution!");
             Main.error("Experienced:\t" + e.getClass().getSimpleName());
             if (e.getMessage() != null) {
                 Main.error("Provided Error Message:\t" + e.getMessage());
             }
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        } finally {
+            if (sampler != null) {
+                try {
+                    usage = sampler.stop();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            phases.finish();
+            writePhases();
         }
     }
 
+    /**
+     * Method to consume the output of the BuildTools process until it exits.
+     *
+     * @param output of the process.
+     */
+    private void pump(@NotNull InputStream output) {
+        AsyncLogger.open(version, new File(LOG_FOLDER, version + ".log"));
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lastOutput = System.currentTimeMillis();
+                if (line.contains(UNCHANGED_MARKER)) unchanged = true;
+                phases.accept(line);
+                AsyncLogger.output(version, line);
+            }
+        } catch (IOException e) {
+            Main.debug(() -> "The output of " + version + " closed unexpectedly: " + e.getMessage());
+        } finally {
+            AsyncLogger.close(version);
+        }
+    }
+
+    /**
+     * Method to write the timing of each phase of the build as JSON.
+     */
+    private void writePhases() {
+        try {
+            if (!LOG_FOLDER.exists() && !LOG_FOLDER.mkdirs() && !LOG_FOLDER.isDirectory()) return;
+            Files.write(new File(LOG_FOLDER, version + "-phases.json").toPath(),
+                    phases.toJson(version, exitCode, usage).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Main.error("Failed to write the phase timings of " + version + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to set the maximum heap of the BuildTools process, before it is started.
+     *
+     * @param maxHeap in megabytes.
+     */
+    public void setMaxHeap(int maxHeap) {
+        this.maxHeap = maxHeap;
+    }
+
+    /**
+     * Method to set the thresholds of the watchdog, before the process is started.
+     *
+     * @param stallTimeout time (in milliseconds) without output after which the process is killed, {@code 0} to
+     *                     disable.
+     * @param buildTimeout time (in milliseconds) the process may run for in total, {@code 0} to disable.
+     */
+    public void setTimeouts(long stallTimeout, long buildTimeout) {
+        this.stallTimeout = Math.max(0, stallTimeout);
+        this.buildTimeout = Math.max(0, buildTimeout);
+    }
+
+    /**
+     * Method to obtain the reason the watchdog killed the process.
+     *
+     * @return the reason, or {@code null} if the process wasn't killed.
+     */
+    @Nullable
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Method to obtain the resources consumed by the BuildTools process and every process it spawned.
+     *
+     * @return {@link ResourceUsage} or {@code null} if it couldn't be sampled (for example, outside of Linux).
+     */
+    @Nullable
+    public ResourceUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * Method to check if BuildTools found nothing to compile, keeping the Spigot Artifact of the previous build.
+     *
+     * @return {@link #unchanged}.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Method to obtain the time (in milliseconds) spent in each phase of the build.
+     *
+     * @return {@link Map} of phase to duration, in the order the phases first occurred.
+     */
+    @NotNull
+    public Map<String, Long> getPhases() {
+        return phases.getTotals();
+    }
+
+    /**
+     * Method to obtain the exit code of the BuildTools process.
+     *
+     * @return {@link #exitCode}.
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Method to obtain the version this thread stands for.
+     *
+     * @return {@link #version}.
+     */
+    public String getVersion() {
+        return version;
+    }
+
 }
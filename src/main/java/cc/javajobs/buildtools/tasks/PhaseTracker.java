@@ -0,0 +1,187 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.obj.ResourceUsage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The PhaseTracker class splits the output of a BuildTools process into timed phases.
+ * <p>
+ *     Each line is matched against the markers BuildTools prints as it moves between its steps (cloning, pulling,
+ *     downloading, remapping, decompiling, patching, compiling and copying), a line without a marker belongs to the
+ *     current phase.
+ *     <br>A build starts in the 'setup' phase once its process is {@link #start()}ed, so the time it spent waiting
+ *     to be admitted isn't part of any phase.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 17:30
+ */
+public class PhaseTracker {
+
+    /**
+     * The markers of each phase, a marker is matched anywhere within a line.
+     */
+    private static final String[][] MARKERS = {
+            {"Starting clone of", "clone"},
+            {"Pulling updates for", "update"},
+            {"Starting download of", "download"},
+            {"Final mapped jar", "remap"},
+            {"Remapping", "remap"},
+            {"Decompiling", "decompile"},
+            {"Applying CraftBukkit Patches", "patch"},
+            {"Patching with", "patch"},
+            {"Compiling Bukkit", "compile-bukkit"},
+            {"Compiling CraftBukkit", "compile-craftbukkit"},
+            {"Compiling Spigot", "compile-spigot"},
+            {"Success! Everything completed successfully", "copy"},
+    };
+
+    /**
+     * The time (in milliseconds) the build started, {@code -1} if it hasn't started.
+     */
+    private long started = -1;
+
+    /**
+     * Every completed phase, in the order they occurred.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * The current phase.
+     */
+    private String current = "setup";
+
+    /**
+     * The time (in milliseconds) the current phase started.
+     */
+    private long currentStart = -1;
+
+    /**
+     * The time (in milliseconds) the build finished, {@code -1} if it is still running.
+     */
+    private long finished = -1;
+
+    /**
+     * Method to consume a line of output, moving to the next phase if it contains a marker.
+     *
+     * @param line of output.
+     */
+    public synchronized void accept(@NotNull String line) {
+        if (started == -1 || finished != -1) return;
+        for (String[] marker : MARKERS) {
+            if (!line.contains(marker[0])) continue;
+            if (!marker[1].equals(current)) {
+                final long now = System.currentTimeMillis();
+                segments.add(new Segment(current, currentStart, now));
+                current = marker[1];
+                currentStart = now;
+            }
+            return;
+        }
+    }
+
+    /**
+     * Method to start the 'setup' phase, once the process has been started.
+     */
+    public synchronized void start() {
+        if (started != -1) return;
+        started = System.currentTimeMillis();
+        currentStart = started;
+    }
+
+    /**
+     * Method to end the current phase, once the process has exited.
+     */
+    public synchronized void finish() {
+        if (finished != -1) return;
+        start(); // A process which failed to start took no time.
+        finished = System.currentTimeMillis();
+        segments.add(new Segment(current, currentStart, finished));
+    }
+
+    /**
+     * Method to obtain the total time (in milliseconds) spent in each phase.
+     *
+     * @return {@link Map} of phase to duration, in the order the phases first occurred.
+     */
+    @NotNull
+    public synchronized Map<String, Long> getTotals() {
+        final Map<String, Long> totals = new LinkedHashMap<>();
+        for (Segment segment : segments) totals.merge(segment.phase, segment.end - segment.start, Long::sum);
+        if (started != -1 && finished == -1) totals.merge(current, System.currentTimeMillis() - currentStart, Long::sum);
+        return totals;
+    }
+
+    /**
+     * Method to describe the phases of the build as JSON.
+     *
+     * @param version  which was built.
+     * @param exitCode of the BuildTools process.
+     * @param usage    of the process tree, or {@code null} if it wasn't sampled.
+     * @return JSON describing each phase, the total time spent in each phase and the resources consumed.
+     */
+    @NotNull
+    public synchronized String toJson(@NotNull String version, int exitCode, @Nullable ResourceUsage usage) {
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"version\": \"").append(version).append("\",\n");
+        json.append("  \"exitCode\": ").append(exitCode).append(",\n");
+        json.append("  \"started\": ").append(started).append(",\n");
+        json.append("  \"duration\": ").append((finished == -1 ? System.currentTimeMillis() : finished) - started)
+                .append(",\n");
+        json.append("  \"phases\": [");
+        for (int i = 0; i < segments.size(); i++) {
+            final Segment segment = segments.get(i);
+            json.append(i == 0 ? "\n" : ",\n").append("    {\"phase\": \"").append(segment.phase)
+                    .append("\", \"offset\": ").append(segment.start - started)
+                    .append(", \"duration\": ").append(segment.end - segment.start).append('}');
+        }
+        json.append(segments.isEmpty() ? "],\n" : "\n  ],\n");
+        json.append("  \"totals\": {");
+        int i = 0;
+        for (Map.Entry<String, Long> total : getTotals().entrySet()) {
+            json.append(i++ == 0 ? "\n" : ",\n").append("    \"").append(total.getKey()).append("\": ")
+                    .append(total.getValue());
+        }
+        json.append(i == 0 ? "}" : "\n  }");
+        if (usage != null) {
+            json.append(",\n  \"resources\": {\n");
+            json.append("    \"cpuTime\": ").append(usage.getCpuTime()).append(",\n");
+            json.append("    \"peakRss\": ").append(usage.getPeakRss()).append(",\n");
+            json.append("    \"readBytes\": ").append(usage.getReadBytes()).append(",\n");
+            json.append("    \"writtenBytes\": ").append(usage.getWrittenBytes()).append(",\n");
+            json.append("    \"peakProcesses\": ").append(usage.getPeakProcesses()).append("\n  }");
+        }
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * A completed phase.
+     */
+    private static class Segment {
+
+        /**
+         * The name of the phase.
+         */
+        private final String phase;
+
+        /**
+         * The time (in milliseconds) the phase started and ended.
+         */
+        private final long start, end;
+
+        private Segment(String phase, long start, long end) {
+            this.phase = phase;
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * The ProcessTree class locates and kills a process along with every process it spawned.
+ * <p>
+ *     As this project targets Java 8 (without 'ProcessHandle'), the pid of a {@link Process} is resolved
+ *     reflectively, its descendants are then found through '/proc' on Linux, Windows kills the tree through
+ *     'taskkill /T'.
+ *     <br>Where the pid cannot be resolved, only the process itself is destroyed.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 18:05
+ */
+public final class ProcessTree {
+
+    /**
+     * If this is running on Windows.
+     */
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("win");
+
+    private ProcessTree() {
+        throw new UnsupportedOperationException("ProcessTree is a utility class");
+    }
+
+    /**
+     * Method to resolve the pid of the given process.
+     *
+     * @param process to resolve the pid of.
+     * @return the pid, or {@code -1} if it cannot be resolved.
+     */
+    public static long getPid(@NotNull Process process) {
+        try {
+            final Method pid = Process.class.getMethod("pid"); // Java 9+.
+            return (long) pid.invoke(process);
+        } catch (ReflectiveOperationException ignored) {
+        }
+        try {
+            final Field pid = process.getClass().getDeclaredField("pid"); // UNIXProcess on Java 8.
+            pid.setAccessible(true);
+            return pid.getInt(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method to find every descendant of the given process through '/proc'.
+     *
+     * @param pid of the process.
+     * @return {@link List} of descendant pids, empty if '/proc' is unavailable.
+     */
+    @NotNull
+    public static List<Long> getDescendants(long pid) {
+        final Map<Long, List<Long>> children = new HashMap<>();
+        final File[] entries = new File("/proc").listFiles();
+        if (entries == null) return Collections.emptyList();
+        for (File entry : entries) {
+            if (!entry.getName().matches("\\d+")) continue;
+            final long parent = getParent(entry);
+            if (parent != -1) children.computeIfAbsent(parent, key -> new ArrayList<>()).add(Long.parseLong(entry.getName()));
+        }
+        final List<Long> descendants = new ArrayList<>();
+        final Deque<Long> queue = new ArrayDeque<>(children.getOrDefault(pid, Collections.emptyList()));
+        while (!queue.isEmpty()) {
+            final long child = queue.poll();
+            if (descendants.contains(child)) continue;
+            descendants.add(child);
+            queue.addAll(children.getOrDefault(child, Collections.emptyList()));
+        }
+        return descendants;
+    }
+
+    /**
+     * Method to read the parent pid of the given '/proc' entry.
+     *
+     * @param entry of the process within '/proc'.
+     * @return the parent pid, or {@code -1} if the process has exited.
+     */
+    private static long getParent(@NotNull File entry) {
+        try {
+            final String stat = new String(Files.readAllBytes(new File(entry, "stat").toPath()), StandardCharsets.UTF_8);
+            // The command (2nd field) may contain spaces, the fields after it are read from the closing bracket.
+            final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Long.parseLong(fields[1]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method to forcibly kill the given process and every process it spawned.
+     *
+     * @param process to kill.
+     */
+    public static void kill(@NotNull Process process) {
+        final long pid = getPid(process);
+        if (pid != -1) {
+            if (WINDOWS) {
+                run("taskkill", "/PID", String.valueOf(pid), "/T", "/F");
+            } else {
+                final List<Long> descendants = getDescendants(pid);
+                if (!descendants.isEmpty()) {
+                    final List<String> command = new ArrayList<>(Arrays.asList("kill", "-KILL"));
+                    descendants.forEach(descendant -> command.add(String.valueOf(descendant)));
+                    run(command.toArray(new String[0]));
+                }
+            }
+        }
+        process.destroyForcibly();
+    }
+
+    /**
+     * Method to run the given command, waiting for it to exit.
+     *
+     * @param command to run.
+     */
+    private static void run(@NotNull String... command) {
+        try {
+            new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(WINDOWS ? "NUL" : "/dev/null")))
+                    .start().waitFor();
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to run '" + String.join(" ", command) + "': " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package cc.javajobs.buildtools.tasks;
+
+import cc.javajobs.buildtools.obj.ResourceUsage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ResourceSampler measures the resources consumed by a BuildTools process and every process it spawned.
+ * <p>
+ *     A daemon thread walks the process tree (BuildTools, git and the Maven JVMs) every {@link #INTERVAL} and reads
+ *     the CPU time and resident memory of each process from '/proc/pid/stat' and its storage I/O from
+ *     '/proc/pid/io'.
+ *     <br>CPU time and I/O are cumulative, the last values read for each process are summed (a process is
+ *     identified by its pid and start time, as pids are reused), the peak resident memory is the largest sum seen
+ *     across the tree at once.
+ *     <br>Processes which start and exit between two samples are missed, the usage is therefore a lower bound.
+ *     <br>Sampling is only available on Linux, elsewhere no usage is reported.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 18:40
+ */
+public class ResourceSampler {
+
+    /**
+     * The interval (in milliseconds) the process tree is sampled at.
+     */
+    private static final long INTERVAL = 1000;
+
+    /**
+     * The clock ticks per second '/proc/pid/stat' reports CPU time in ('USER_HZ', 100 on every mainstream kernel).
+     */
+    private static final long CLOCK_TICKS = 100;
+
+    /**
+     * The size (in bytes) of a memory page, used to convert the resident pages reported by '/proc/pid/stat'.
+     */
+    private static final long PAGE_SIZE = 4096;
+
+    /**
+     * The pid of the BuildTools process.
+     */
+    private final long pid;
+
+    /**
+     * The version being built, used to name the sampling thread.
+     */
+    private final String version;
+
+    /**
+     * The last values read for each process, keyed by 'pid:starttime'.
+     */
+    private final Map<String, long[]> processes = new HashMap<>();
+
+    /**
+     * The peak resident memory (in bytes) of the tree.
+     */
+    private long peakRss = 0;
+
+    /**
+     * The peak amount of processes in the tree.
+     */
+    private int peakProcesses = 0;
+
+    /**
+     * The sampling thread, {@code null} until started.
+     */
+    private Thread thread = null;
+
+    /**
+     * If sampling should stop.
+     */
+    private volatile boolean stopped = false;
+
+    /**
+     * Constructor to create a ResourceSampler.
+     *
+     * @param pid     of the BuildTools process.
+     * @param version being built.
+     */
+    public ResourceSampler(long pid, @NotNull String version) {
+        this.pid = pid;
+        this.version = version;
+    }
+
+    /**
+     * Method to check if the process tree can be sampled on this system.
+     *
+     * @param pid of the BuildTools process, {@code -1} if it couldn't be resolved.
+     * @return {@code true} if '/proc' exposes the process.
+     */
+    public static boolean isSupported(long pid) {
+        return pid != -1 && new File("/proc/" + pid + "/stat").exists();
+    }
+
+    /**
+     * Method to start sampling the process tree on a daemon thread.
+     */
+    public void start() {
+        thread = new Thread(() -> {
+            while (!stopped) {
+                sample();
+                try {
+                    Thread.sleep(INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "BuildTools-Sampler-" + version);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method to stop sampling and obtain the usage of the process tree.
+     *
+     * @return {@link ResourceUsage} of the process tree.
+     * @throws InterruptedException if the wait for the sampling thread is interrupted.
+     */
+    @NotNull
+    public ResourceUsage stop() throws InterruptedException {
+        stopped = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(INTERVAL);
+        }
+        synchronized (this) {
+            long cpuTime = 0, read = 0, written = 0;
+            for (long[] values : processes.values()) {
+                cpuTime += values[0];
+                read += values[2];
+                written += values[3];
+            }
+            return new ResourceUsage(cpuTime * 1000 / CLOCK_TICKS, peakRss, read, written, peakProcesses);
+        }
+    }
+
+    /**
+     * Method to read every process in the tree once.
+     */
+    private synchronized void sample() {
+        final List<Long> tree = new ArrayList<>();
+        tree.add(pid);
+        tree.addAll(ProcessTree.getDescendants(pid));
+        long rss = 0;
+        int alive = 0;
+        for (long process : tree) {
+            final long[] values = read(process);
+            if (values == null) continue; // The process exited since the tree was walked.
+            alive++;
+            rss += values[1];
+            final String key = process + ":" + values[4];
+            final long[] previous = processes.get(key);
+            if (previous != null) { // CPU time and I/O only grow, unless they are no longer readable.
+                values[0] = Math.max(values[0], previous[0]);
+                values[2] = Math.max(values[2], previous[2]);
+                values[3] = Math.max(values[3], previous[3]);
+            }
+            processes.put(key, values);
+        }
+        peakRss = Math.max(peakRss, rss);
+        peakProcesses = Math.max(peakProcesses, alive);
+    }
+
+    /**
+     * Method to read the usage of a single process.
+     *
+     * @param process pid to read.
+     * @return {cpu ticks, rss bytes, read bytes, written bytes, start time} or {@code null} if the process exited.
+     */
+    @Nullable
+    private long[] read(long process) {
+        final long[] values = new long[5];
+        try {
+            final String stat = new String(Files.readAllBytes(new File("/proc/" + process + "/stat").toPath()),
+                    StandardCharsets.UTF_8);
+            // The command (2nd field) may contain spaces, the fields after it are read from the closing bracket.
+            final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+            values[0] = Long.parseLong(fields[11]) + Long.parseLong(fields[12]); // utime + stime.
+            values[1] = Long.parseLong(fields[21]) * PAGE_SIZE; // rss.
+            values[4] = Long.parseLong(fields[19]); // starttime.
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        try {
+            for (String line : Files.readAllLines(new File("/proc/" + process + "/io").toPath(), StandardCharsets.UTF_8)) {
+                if (line.startsWith("read_bytes:")) values[2] = Long.parseLong(line.substring(11).trim());
+                else if (line.startsWith("write_bytes:")) values[3] = Long.parseLong(line.substring(12).trim());
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // The I/O of a process is only readable by its owner, it is then left as 0.
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,167 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The ArtifactPublisher publishes the Server and NMS Jars of each version as soon as its build finishes.
+ * <p>
+ *     The artifacts are found at the paths each build is known to produce, the Server Jar at
+ *     'version/spigot-version.jar' and the NMS Jars within 'version/Spigot/Spigot-Server/target'.
+ *     <br>Each artifact is copied with {@link FileChannel#transferTo(long, long,
+ *     java.nio.channels.WritableByteChannel)} (letting the kernel copy the data where it can), it isn't linked, as
+ *     BuildTools rewrites its artifacts in place, which would corrupt a linked artifact whilst it is being used.
+ *     <br>The copy is published under a temporary name and atomically moved into place, so a partially published
+ *     artifact is never visible, an artifact identical (in size and modification time) to the published one isn't
+ *     copied again.
+ *     <br>Publishing runs on a daemon thread alongside the builds which are still running.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 20:55
+ */
+public class ArtifactPublisher {
+
+    /**
+     * The folders the Server and NMS Jars are published to, {@code null} if they aren't published.
+     */
+    private final File serverFolder, nmsFolder;
+
+    /**
+     * If existing artifacts are replaced.
+     */
+    private final boolean overwrite;
+
+    /**
+     * The executor publishing the artifacts.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "BuildTools-Publish");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Every publication which has been requested.
+     */
+    private final List<CompletableFuture<Void>> publications = new ArrayList<>();
+
+    /**
+     * Constructor to create an ArtifactPublisher.
+     *
+     * @param serverFolder to publish the Server Jars to, or {@code null}.
+     * @param nmsFolder    to publish the NMS Jars to, or {@code null}.
+     * @param overwrite    {@code true} to replace existing artifacts.
+     */
+    public ArtifactPublisher(@Nullable File serverFolder, @Nullable File nmsFolder, boolean overwrite) {
+        this.serverFolder = serverFolder;
+        this.nmsFolder = nmsFolder;
+        this.overwrite = overwrite;
+    }
+
+    /**
+     * Method to publish the artifacts of the given version in the background.
+     *
+     * @param version  which was built.
+     * @param artifact the Server Jar of the version, within its version folder.
+     */
+    public void publish(@NotNull String version, @NotNull File artifact) {
+        if (serverFolder == null && nmsFolder == null) return;
+        final CompletableFuture<Void> publication = CompletableFuture.runAsync(() -> {
+            if (serverFolder != null) publish(artifact, serverFolder);
+            if (nmsFolder == null) return;
+            final File[] jars = new File(artifact.getParentFile(), "Spigot/Spigot-Server/target").listFiles(file ->
+                    file.getName().startsWith("spigot-") && file.getName().endsWith(".jar")
+                            && !file.getName().endsWith("-bootstrap.jar") && !file.getName().endsWith("-remapped.jar"));
+            if (jars == null || jars.length == 0) {
+                Main.debug(() -> "No NMS Jars were found for " + version + ".");
+                return;
+            }
+            for (File jar : jars) publish(jar, nmsFolder);
+        }, executor);
+        synchronized (publications) {
+            publications.add(publication);
+        }
+    }
+
+    /**
+     * Method to wait for every requested publication.
+     */
+    public void awaitCompletion() {
+        final List<CompletableFuture<Void>> pending;
+        synchronized (publications) {
+            pending = new ArrayList<>(publications);
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).exceptionally(throwable -> null).join();
+        executor.shutdown();
+    }
+
+    /**
+     * Method to publish a single artifact into the given folder.
+     *
+     * @param source artifact to publish.
+     * @param folder to publish into.
+     */
+    private void publish(@NotNull File source, @NotNull File folder) {
+        if (!source.isFile()) return;
+        final Path target = new File(folder, source.getName()).toPath();
+        try {
+            if (Files.exists(target)) {
+                if (!overwrite) {
+                    Main.debug(() -> "Skipping " + source.getName() + " because it already exists.");
+                    return;
+                }
+                // A hard link (published by an earlier version of this program) is always replaced by a copy.
+                if (!Files.isSameFile(source.toPath(), target) && Files.size(source.toPath()) == Files.size(target)
+                        && Files.getLastModifiedTime(source.toPath()).equals(Files.getLastModifiedTime(target))) {
+                    Main.debug(() -> "Skipping " + source.getName() + " because it is already published.");
+                    return;
+                }
+            }
+            final Path temp = Files.createTempFile(folder.toPath(), source.getName(), ".tmp");
+            try {
+                copy(source.toPath(), temp);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            Main.log("Copied " + source.getName() + " to " + folder.getPath());
+        } catch (IOException e) {
+            Main.error("Failed to publish " + source.getName() + " to " + folder.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to copy the source to the target using {@link FileChannel#transferTo(long, long,
+     * java.nio.channels.WritableByteChannel)}, letting the kernel copy the data where it can.
+     *
+     * @param source to copy.
+     * @param target to copy to, replaced if it exists.
+     * @throws IOException if the copy fails.
+     */
+    private static void copy(@NotNull Path source, @NotNull Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) position += in.transferTo(position, size - position, out);
+        }
+        Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+    }
+
+}
@@ -0,0 +1,367 @@
+package cc.javajobs.buildtools.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AsyncLogger writes every log message and every line of BuildTools output on a single background thread.
+ * <p>
+ *     Threads logging a message only place it into a bounded (locking) {@link ArrayBlockingQueue} of
+ *     {@link #CAPACITY} entries, the writer thread then drains the queue in batches, writing to the console (and
+ *     each version's log file) without any other thread waiting on the console.
+ *     <br>BuildTools output may only fill the queue up to {@link #RESERVED} entries short of its capacity, so the
+ *     program's own messages (build results, timings and the summary) still fit during heavy output:
+ *     <br>- BuildTools output waits once its share is full, a version's log file is therefore always complete (the
+ *     BuildTools process pauses whilst its output waits).
+ *     <br>- 'ERROR' messages wait for space, errors are never lost.
+ *     <br>- 'INFO' and 'DEBUG' messages are only dropped once the reserved entries are full as well, the amount
+ *     dropped is reported once space is available.
+ *     <br>Pending entries are written before the JVM exits.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 19:40
+ */
+public final class AsyncLogger {
+
+    /**
+     * The capacity of the buffer.
+     */
+    private static final int CAPACITY = 8192;
+
+    /**
+     * The entries of the buffer BuildTools output cannot occupy, kept for the program's own messages.
+     */
+    private static final int RESERVED = 1024;
+
+    /**
+     * The time (in milliseconds) pending entries are given to be written when the JVM exits.
+     */
+    private static final long EXIT_FLUSH_TIMEOUT = 5000;
+
+    /**
+     * The buffer of entries waiting to be written.
+     */
+    private static final BlockingQueue<Entry> buffer = new ArrayBlockingQueue<>(CAPACITY);
+
+    /**
+     * The entries of the buffer BuildTools output may still occupy.
+     */
+    private static final Semaphore outputPermits = new Semaphore(CAPACITY - RESERVED);
+
+    /**
+     * The amount of messages dropped since the last report.
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The console, only written to by the writer thread.
+     */
+    private static final Writer console = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 64 * 1024);
+
+    /**
+     * The open log file of each version, only used by the writer thread.
+     */
+    private static final Map<String, Writer> files = new HashMap<>();
+
+    /**
+     * The lowest level which is logged.
+     */
+    private static volatile Level threshold = Level.INFO;
+
+    static {
+        final Thread writer = new Thread(AsyncLogger::write, "BuildTools-Logger");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(EXIT_FLUSH_TIMEOUT), "BuildTools-Logger-Flush"));
+    }
+
+    private AsyncLogger() {
+        throw new UnsupportedOperationException("AsyncLogger is a utility class");
+    }
+
+    /**
+     * Method to set the lowest level which is logged.
+     *
+     * @param level to log from.
+     */
+    public static void setThreshold(@NotNull Level level) {
+        threshold = level;
+    }
+
+    /**
+     * Method to check if messages of the given level are logged, before the message is formatted.
+     *
+     * @param level of the message.
+     * @return {@code true} if the message would be logged.
+     */
+    public static boolean isEnabled(@NotNull Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    /**
+     * Method to log a message to the console.
+     *
+     * @param level   of the message.
+     * @param message to log.
+     */
+    public static void log(@NotNull Level level, @NotNull String message) {
+        if (!isEnabled(level)) return;
+        final Entry entry = new Entry(Entry.MESSAGE, null, level.prefix + message);
+        if (level == Level.ERROR) put(entry);
+        else if (!buffer.offer(entry)) dropped.incrementAndGet();
+    }
+
+    /**
+     * Method to log a line of BuildTools output to the console (prefixed with the version) and the version's
+     * log file.
+     *
+     * @param version which produced the line.
+     * @param line    of output.
+     */
+    public static void output(@NotNull String version, @NotNull String line) {
+        try {
+            outputPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!put(new Entry(Entry.OUTPUT, version, line))) outputPermits.release();
+    }
+
+    /**
+     * Method to open (replacing) the log file the output of the given version is written to.
+     *
+     * @param version whose output is written to the file.
+     * @param file    to write to.
+     */
+    public static void open(@NotNull String version, @NotNull File file) {
+        put(new Entry(Entry.OPEN, version, file.getPath()));
+    }
+
+    /**
+     * Method to close the log file of the given version, once its output is complete.
+     *
+     * @param version whose log file is closed.
+     */
+    public static void close(@NotNull String version) {
+        put(new Entry(Entry.CLOSE, version, null));
+    }
+
+    /**
+     * Method to wait for every entry logged so far to be written.
+     *
+     * @param timeout the maximum time (in milliseconds) to wait.
+     * @return {@code true} if every entry was written in time.
+     */
+    public static boolean flush(long timeout) {
+        final Entry entry = new Entry(Entry.FLUSH, null, null);
+        try {
+            if (!buffer.offer(entry, timeout, TimeUnit.MILLISECONDS)) return false;
+            return entry.flushed.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Method to place an entry into the buffer, waiting for space if necessary.
+     *
+     * @param entry to place.
+     * @return {@code true} if the entry was placed, {@code false} if the thread was interrupted whilst waiting.
+     */
+    private static boolean put(@NotNull Entry entry) {
+        try {
+            buffer.put(entry);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The loop of the writer thread, draining the buffer in batches and flushing once each batch is written.
+     */
+    private static void write() {
+        final List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.drainTo(batch);
+            outputPermits.release((int) batch.stream().filter(entry -> entry.type == Entry.OUTPUT).count());
+            final List<Entry> flushes = new ArrayList<>();
+            for (Entry entry : batch) {
+                try {
+                    write(entry);
+                } catch (IOException e) {
+                    writeError("Failed to write the log: " + e.getMessage());
+                }
+                if (entry.type == Entry.FLUSH) flushes.add(entry);
+            }
+            batch.clear();
+            final long lost = dropped.getAndSet(0);
+            if (lost != 0) writeError(lost + " log messages were dropped as the log buffer was full.");
+            try {
+                console.flush();
+                for (Writer file : files.values()) file.flush();
+            } catch (IOException e) {
+                writeError("Failed to flush the log: " + e.getMessage());
+            }
+            flushes.forEach(entry -> entry.flushed.countDown());
+        }
+    }
+
+    /**
+     * Method to write a single entry.
+     *
+     * @param entry to write.
+     * @throws IOException if the console can't be written to.
+     */
+    private static void write(@NotNull Entry entry) throws IOException {
+        switch (entry.type) {
+            case Entry.MESSAGE:
+                console.write(entry.text);
+                console.write(System.lineSeparator());
+                break;
+            case Entry.OUTPUT:
+                console.write("[" + entry.version + "] " + entry.text);
+                console.write(System.lineSeparator());
+                final Writer file = files.get(entry.version);
+                if (file == null) break;
+                try {
+                    file.write(entry.text);
+                    file.write(System.lineSeparator());
+                } catch (IOException e) {
+                    writeError("Failed to write the log of " + entry.version + ", it will be incomplete: "
+                            + e.getMessage());
+                    closeFile(entry.version);
+                }
+                break;
+            case Entry.OPEN:
+                closeFile(entry.version);
+                try {
+                    final File log = new File(entry.text);
+                    final File parent = log.getAbsoluteFile().getParentFile();
+                    if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+                        throw new IOException("Failed to create '" + parent.getPath() + "'");
+                    }
+                    files.put(entry.version, Files.newBufferedWriter(log.toPath(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    writeError("Failed to open the log of " + entry.version + ": " + e.getMessage());
+                }
+                break;
+            case Entry.CLOSE:
+                closeFile(entry.version);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Method to close the log file of the given version, if it is open.
+     *
+     * @param version whose log file is closed.
+     */
+    private static void closeFile(@NotNull String version) {
+        final Writer file = files.remove(version);
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            writeError("Failed to close the log of " + version + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to write an error of the logger itself, from the writer thread.
+     *
+     * @param message to write.
+     */
+    private static void writeError(@NotNull String message) {
+        try {
+            console.write(Level.ERROR.prefix + message);
+            console.write(System.lineSeparator());
+        } catch (IOException ignored) {
+            // The console is unavailable, there's nowhere left to report to.
+        }
+    }
+
+    /**
+     * The levels of a log message, from lowest to highest.
+     */
+    public enum Level {
+
+        DEBUG("[DEBUG] "), INFO("[INFO] "), ERROR("[ERROR] ");
+
+        /**
+         * The prefix of each message of this level.
+         */
+        private final String prefix;
+
+        Level(String prefix) {
+            this.prefix = prefix;
+        }
+
+    }
+
+    /**
+     * An entry within the buffer.
+     */
+    private static class Entry {
+
+        /**
+         * The types of entry.
+         */
+        private static final int MESSAGE = 0, OUTPUT = 1, OPEN = 2, CLOSE = 3, FLUSH = 4;
+
+        /**
+         * The type of the entry.
+         */
+        private final int type;
+
+        /**
+         * The version the entry belongs to, {@code null} for messages.
+         */
+        private final String version;
+
+        /**
+         * The message, line of output or log file path of the entry.
+         */
+        private final String text;
+
+        /**
+         * Counted down once a {@link #FLUSH} entry (and every entry before it) has been written, {@code null} for
+         * other types.
+         */
+        private final CountDownLatch flushed;
+
+        private Entry(int type, String version, String text) {
+            this.type = type;
+            this.version = version;
+            this.text = text;
+            this.flushed = type == FLUSH ? new CountDownLatch(1) : null;
+        }
+
+    }
+
+}
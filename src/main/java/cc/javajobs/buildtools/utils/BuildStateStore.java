@@ -0,0 +1,139 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The BuildStateStore class records the inputs of each version's last successful build.
+ * <p>
+ *     The inputs of a build are the repository references of its version JSON (including the CraftBukkit commit),
+ *     the digest of the BuildTools Jar and the JDK it is built with, alongside the size and modification time of
+ *     the Spigot Artifact it produced.
+ *     <br>A version whose inputs and artifact are unchanged since it was recorded doesn't need to be built again,
+ *     so no BuildTools process has to be started to find that out.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 15:05
+ */
+public class BuildStateStore {
+
+    /**
+     * The prefix of each input within a state file.
+     */
+    private static final String INPUT = "input.";
+
+    /**
+     * The folder the per-version state is stored within.
+     */
+    private final File root;
+
+    /**
+     * Constructor to create a BuildStateStore.
+     *
+     * @param root folder to store the state within.
+     */
+    public BuildStateStore(@NotNull File root) {
+        this.root = root;
+        if (!root.exists() && !root.mkdirs() && !root.isDirectory()) {
+            Main.error("Failed to create the build state store at '" + root.getPath() + "'.");
+        }
+    }
+
+    /**
+     * Method to describe the inputs of a build.
+     *
+     * @param version    being built.
+     * @param buildTools digest of the BuildTools Jar.
+     * @param jdk        identifying the JDK the version is built with.
+     * @return {@link Properties} of the inputs.
+     */
+    @NotNull
+    public static Properties describeInputs(@NotNull MinecraftVersion version, @NotNull String buildTools,
+                                            @NotNull String jdk) {
+        final Properties inputs = new Properties();
+        for (Map.Entry<String, String> ref : version.getRefs().entrySet()) {
+            inputs.setProperty("ref." + ref.getKey(), ref.getValue());
+        }
+        if (version.getCraftBukkit() != null) inputs.setProperty("ref.CraftBukkit", version.getCraftBukkit());
+        inputs.setProperty("buildtools", buildTools);
+        inputs.setProperty("jdk", jdk);
+        return inputs;
+    }
+
+    /**
+     * Method to check if the given version was last built with the same inputs and its artifact is unchanged.
+     *
+     * @param version  to check.
+     * @param inputs   of the upcoming build.
+     * @param artifact which the build produces.
+     * @return {@code true} if the version doesn't need to be built again.
+     */
+    public boolean isUpToDate(@NotNull String version, @NotNull Properties inputs, @NotNull File artifact) {
+        final File file = getFile(version);
+        if (!file.exists() || !artifact.isFile()) return false;
+        final Properties state = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            state.load(in);
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to read the build state of " + version + ": " + e.getMessage());
+            return false;
+        }
+        if (!String.valueOf(artifact.length()).equals(state.getProperty("artifact.size"))
+                || !String.valueOf(artifact.lastModified()).equals(state.getProperty("artifact.mtime"))) {
+            return false;
+        }
+        int recorded = 0;
+        for (String key : state.stringPropertyNames()) {
+            if (!key.startsWith(INPUT)) continue;
+            recorded++;
+            if (!state.getProperty(key).equals(inputs.getProperty(key.substring(INPUT.length())))) return false;
+        }
+        return recorded == inputs.size();
+    }
+
+    /**
+     * Method to record the inputs and artifact of a successful build, atomically.
+     *
+     * @param version  which was built.
+     * @param inputs   of the build.
+     * @param artifact which the build produced.
+     */
+    public void record(@NotNull String version, @NotNull Properties inputs, @NotNull File artifact) {
+        final Properties state = new Properties();
+        for (String key : inputs.stringPropertyNames()) state.setProperty(INPUT + key, inputs.getProperty(key));
+        state.setProperty("artifact.size", String.valueOf(artifact.length()));
+        state.setProperty("artifact.mtime", String.valueOf(artifact.lastModified()));
+        state.setProperty("built", String.valueOf(System.currentTimeMillis()));
+        final File file = getFile(version);
+        try {
+            final Path temp = Files.createTempFile(root.toPath(), file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                state.store(out, "BuildTools - Master build state for " + version);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Main.error("Failed to record the build state of " + version + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to obtain the state file of the given version.
+     *
+     * @param version to obtain the state file for.
+     * @return {@link File} which may not exist.
+     */
+    @NotNull
+    private File getFile(@NotNull String version) {
+        return new File(root, version + ".properties");
+    }
+
+}
@@ -0,0 +1,130 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+
+/**
+ * The ContentStore class stores files once, under their digest, and exposes them elsewhere as hard links.
+ * <p>
+ *     Files are linked rather than copied, so each workspace shares a single (page-cached) copy, a plain copy is only
+ *     used where the filesystem doesn't support hard links (for example across drives).
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 13:05
+ */
+public class ContentStore {
+
+    /**
+     * The folder the content is stored within.
+     */
+    private final File root;
+
+    /**
+     * Constructor to create a ContentStore.
+     *
+     * @param root folder to store the content within.
+     */
+    public ContentStore(@NotNull File root) {
+        this.root = root;
+        if (!root.exists() && !root.mkdirs() && !root.isDirectory()) {
+            Main.error("Failed to create the content store at '" + root.getPath() + "'.");
+        }
+    }
+
+    /**
+     * Method to store the given file under its digest.
+     * <p>
+     *     If content with the same digest is already stored, the stored file is returned without copying.
+     * </p>
+     *
+     * @param source    to store.
+     * @param digest    of the source.
+     * @param extension of the stored file (for example ".jar"), may be empty.
+     * @return the stored {@link File}.
+     * @throws IOException if the file cannot be stored.
+     */
+    @NotNull
+    public File store(@NotNull File source, @NotNull String digest, @NotNull String extension) throws IOException {
+        final File stored = getFile(digest, extension);
+        if (stored.exists() && stored.length() == source.length()) return stored;
+        final Path temp = Files.createTempFile(root.toPath(), digest, ".tmp");
+        try {
+            Files.copy(source.toPath(), temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            Files.move(temp, stored.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        Main.debug(() -> "Stored '" + source.getName() + "' as " + stored.getName());
+        return stored;
+    }
+
+    /**
+     * Method to delete every stored file whose digest isn't in the given set, along with abandoned temporary files.
+     *
+     * @param digests to keep.
+     * @return the amount of files deleted.
+     */
+    public int retain(@NotNull Set<String> digests) {
+        final File[] files = root.listFiles(File::isFile);
+        if (files == null) return 0;
+        int deleted = 0;
+        for (File file : files) {
+            final String name = file.getName();
+            final int dot = name.indexOf('.');
+            if (digests.contains(dot == -1 ? name : name.substring(0, dot)) && !name.endsWith(".tmp")) continue;
+            try {
+                Files.delete(file.toPath());
+                deleted++;
+            } catch (IOException e) {
+                Main.debug(() -> "Failed to delete '" + name + "' from the content store: " + e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Method to obtain the file content with the given digest is stored as.
+     *
+     * @param digest    of the content.
+     * @param extension of the stored file, may be empty.
+     * @return {@link File} which may not exist.
+     */
+    @NotNull
+    public File getFile(@NotNull String digest, @NotNull String extension) {
+        return new File(root, digest + extension);
+    }
+
+    /**
+     * Method to expose the source at the target as a hard link, falling back to a copy.
+     * <p>
+     *     If the target already is a link to the source, nothing is changed.
+     * </p>
+     *
+     * @param source to expose.
+     * @param target to expose the source at (replaced if it exists).
+     * @return {@code true} if the target is a hard link to the source, {@code false} if it was copied.
+     * @throws IOException if the target can neither be linked nor copied.
+     */
+    public static boolean link(@NotNull File source, @NotNull File target) throws IOException {
+        final Path targetPath = target.toPath();
+        if (Files.exists(targetPath) && Files.isSameFile(source.toPath(), targetPath)) return true;
+        Files.deleteIfExists(targetPath);
+        try {
+            Files.createLink(targetPath, source.toPath());
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            Main.debug(() -> "Failed to link '" + target.getName() + "' (" + e.getMessage() + "), copying it instead.");
+            Files.copy(source.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return false;
+        }
+    }
+
+}
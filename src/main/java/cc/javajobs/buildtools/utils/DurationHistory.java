@@ -0,0 +1,147 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DurationHistory class records how long each version takes to build, so future builds can be estimated.
+ * <p>
+ *     Each version's estimate is a moving average of its successful builds, favouring the most recent build.
+ *     <br>A version which has never been built is estimated from the versions sharing its major version
+ *     (for example '1.19.2' from '1.19' and '1.19.1'), then from the median of every version, and finally from
+ *     {@link #DEFAULT_ESTIMATE}.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 16:20
+ */
+public class DurationHistory {
+
+    /**
+     * The estimate (in milliseconds) used when no version has ever been built.
+     */
+    public static final long DEFAULT_ESTIMATE = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * The weight of the most recent build within the moving average.
+     */
+    private static final double WEIGHT = 0.5;
+
+    /**
+     * The file the history is stored as.
+     */
+    private final File file;
+
+    /**
+     * The average duration (in milliseconds) of each version.
+     */
+    private final Properties durations = new Properties();
+
+    /**
+     * Constructor to create a DurationHistory, loading the history stored as the given file.
+     *
+     * @param file to store the history as.
+     */
+    public DurationHistory(@NotNull File file) {
+        this.file = file;
+        if (!file.exists()) return;
+        try (InputStream in = new FileInputStream(file)) {
+            durations.load(in);
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to read the build duration history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to estimate how long the given version takes to build.
+     *
+     * @param version to estimate.
+     * @return the estimate in milliseconds.
+     */
+    public synchronized long estimate(@NotNull MinecraftVersion version) {
+        final String name = version.toString();
+        final long known = get(name);
+        if (known > 0) return known;
+        final String major = getMajor(name);
+        final List<Long> all = new ArrayList<>();
+        long sameMajor = 0;
+        int sameMajorCount = 0;
+        for (String other : durations.stringPropertyNames()) {
+            final long duration = get(other);
+            if (duration <= 0) continue;
+            all.add(duration);
+            if (getMajor(other).equals(major)) {
+                sameMajor += duration;
+                sameMajorCount++;
+            }
+        }
+        if (sameMajorCount != 0) return sameMajor / sameMajorCount;
+        if (all.isEmpty()) return DEFAULT_ESTIMATE;
+        Collections.sort(all);
+        return all.get(all.size() / 2);
+    }
+
+    /**
+     * Method to record the duration of a successful build and store the history atomically.
+     *
+     * @param version  which was built.
+     * @param duration of the build in milliseconds.
+     */
+    public synchronized void record(@NotNull MinecraftVersion version, long duration) {
+        final String name = version.toString();
+        final long previous = get(name);
+        final long average = previous <= 0 ? duration : Math.round(WEIGHT * duration + (1 - WEIGHT) * previous);
+        durations.setProperty(name, String.valueOf(average));
+        try {
+            final File parent = file.getAbsoluteFile().getParentFile();
+            if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Failed to create '" + parent.getPath() + "'");
+            }
+            final Path temp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                durations.store(out, "BuildTools - Master build durations (milliseconds)");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Main.error("Failed to store the build duration history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to obtain the recorded duration of the given version.
+     *
+     * @param version to obtain the duration of.
+     * @return the duration in milliseconds, or {@code -1} if it hasn't been recorded.
+     */
+    private long get(@NotNull String version) {
+        try {
+            return Long.parseLong(durations.getProperty(version, "-1"));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method to obtain the major version of the given version, for example '1.19' for '1.19.2'.
+     *
+     * @param version to obtain the major version of.
+     * @return the major version.
+     */
+    @NotNull
+    private String getMajor(@NotNull String version) {
+        final String[] split = version.split("\\.");
+        return split.length < 2 ? version : split[0] + "." + split[1];
+    }
+
+}
@@ -2,19 +2,104 @@ package cc.javajobs.buildtools.utils;
 
 import cc.javajobs.buildtools.Main;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * FileDownloader stands for an object used to download specified files.
+ * <p>
+ *     Next to each downloaded file, a '.properties' file stores the 'ETag' and 'Last-Modified' headers of the
+ *     download, and whether the download completed.
+ *     <br>Complete files are revalidated with a conditional request (a '304 Not Modified' skips the body),
+ *     partial files are resumed with a 'Range' request if the server supports it.
+ *     <br>When created with more than one segment, large downloads from servers which support ranges are split
+ *     into several concurrent range requests, otherwise a single stream is used.
+ * </p>
  *
  * @author Callum Johnson
  * @since 11/07/2021 - 09:23
  */
 public class FileDownloader {
 
+    /**
+     * The size of the buffer used to transfer the download to disk.
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * The connect and read timeout (in milliseconds) of a download.
+     */
+    private static final int TIMEOUT = 30000;
+
+    /**
+     * The minimum size of a segment, files smaller than two segments are downloaded as a single stream.
+     */
+    private static final long MIN_SEGMENT_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * The maximum amount of concurrent segments used per download.
+     */
+    private final int segments;
+
+    /**
+     * Extracts the download whilst it is being written to disk, {@code null} if the download isn't extracted.
+     */
+    private final StreamingZipExtractor extractor;
+
+    /**
+     * If the last download was extracted whilst it was being downloaded.
+     */
+    private boolean streamed = false;
+
+    /**
+     * Constructor to create a FileDownloader which downloads as a single stream.
+     */
+    public FileDownloader() {
+        this(1);
+    }
+
+    /**
+     * Constructor to create a FileDownloader which splits large downloads into segments.
+     *
+     * @param segments the maximum amount of concurrent segments used per download.
+     */
+    public FileDownloader(int segments) {
+        this.segments = Math.max(1, segments);
+        this.extractor = null;
+    }
+
+    /**
+     * Constructor to create a FileDownloader which extracts a Zip whilst it is being downloaded.
+     * <p>
+     *     The body of a full download is inflated by the extractor as it arrives and is written to disk at the
+     *     same time, once it has been verified the Zip is marked as extracted (see
+     *     {@link ZipExtractor#isExtracted(File)}), if it fails verification the extracted files are deleted.
+     *     <br>Downloads which are skipped, resumed or cannot be streamed are not extracted, check
+     *     {@link #isStreamed()}.
+     * </p>
+     *
+     * @param extractor to extract the download with.
+     */
+    public FileDownloader(@NotNull StreamingZipExtractor extractor) {
+        this.segments = 1;
+        this.extractor = extractor;
+    }
+
     /**
      * Method to download the file specified at the url.
      * <p>
@@ -28,49 +113,739 @@ public class FileDownloader {
      * @return {@code true} if the download is successful.
      */
     public boolean downloadFile(@NotNull String url, @NotNull String fileName, @NotNull String niceName) {
+        return downloadFile(url, fileName, niceName, null);
+    }
+
+    /**
+     * Method to download the file specified at the url, verifying it against the expected digest.
+     * <p>
+     *     The digest is computed whilst the download is written to disk and is stored next to the file, alongside
+     *     its size and modification time, so later runs can trust the file without hashing it again.
+     *     <br>A 64 character digest is treated as SHA-256, a 128 character digest as SHA-512.
+     *     <br>If the digest does not match, the file (and anything extracted from it) is deleted and the download
+     *     fails.
+     * </p>
+     *
+     * @param url            of the file.
+     * @param fileName       of the downloaded/local file.
+     * @param niceName       of the download, for example JDK 16, or BuildTools.
+     * @param expectedDigest of the file (hex), or {@code null} to only record the digest.
+     * @return {@code true} if the download is successful and matches the expected digest.
+     */
+    public boolean downloadFile(@NotNull String url, @NotNull String fileName, @NotNull String niceName,
+                                @Nullable String expectedDigest) {
+        final String algorithm = algorithmFor(expectedDigest);
+        streamed = false;
         try {
-            if (fileName.isEmpty()) throw new IllegalArgumentException("Filename cannot be blank");
-            final File parent = new File("./", niceName);
-            if (!parent.exists()) {
-                if (!parent.mkdirs()) {
-                    Main.error("Failed to create the parent directory for the Program-Data.");
-                    return false;
-                }
-            } else Main.log("Parent folder " + niceName + " already exists.");
-            final File file = new File(parent, fileName);
-            if (file.exists()) {
-                Main.log(niceName + " already exists, Welcome back! Deleting that Jar now.");
-                if (!file.delete()) {
-                    Main.error(niceName + " couldn't be deleted. Please manually delete it and re-run the process.");
-                    return false;
+            final File file = new File(new File("./", niceName), fileName);
+            if (!fetch(url, fileName, niceName, algorithm)) return false;
+            if (!verifyDownload(file, expectedDigest, algorithm, niceName)) {
+                // Nothing extracted from an unverified download may be used.
+                if (extractor != null && extractor.discard() != 0) {
+                    Main.log("Deleted the files extracted from " + niceName + " whilst it was downloading.");
                 }
+                streamed = false;
+                return false;
             }
-            if (!file.createNewFile()) {
-                Main.error(niceName + " couldn't be created. Please place this project into a Standalone Folder.");
+            if (streamed) ZipExtractor.markExtracted(file);
+            return true;
+        } catch (IOException e) {
+            Main.error("Experienced an " + e.getClass().getSimpleName() + " during execution.");
+            if (e.getMessage() != null) Main.error("Exception's Provided Message:\t" + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Method to check if the last download was extracted whilst it was being downloaded.
+     *
+     * @return {@link #streamed}.
+     */
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    /**
+     * Method to fetch the file specified at the url, revalidating, resuming or segmenting the download.
+     *
+     * @param url       of the file.
+     * @param fileName  of the downloaded/local file.
+     * @param niceName  of the download, for example JDK 16, or BuildTools.
+     * @param algorithm of the digest computed during the download.
+     * @return {@code true} if the download is successful.
+     * @throws IOException if the download fails.
+     */
+    private boolean fetch(@NotNull String url, @NotNull String fileName, @NotNull String niceName,
+                          @NotNull String algorithm) throws IOException {
+        if (fileName.isEmpty()) throw new IllegalArgumentException("Filename cannot be blank");
+        final File parent = new File("./", niceName);
+        if (!parent.exists()) {
+            if (!parent.mkdirs() && !parent.isDirectory()) { // Another download may have created it meanwhile.
+                Main.error("Failed to create the parent directory for the Program-Data.");
                 return false;
             }
-            final URL location = new URL(url);
-            Main.log("Downloading " + niceName + " from " + location);
-            final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
-            final URLConnection connection = location.openConnection();
-            final InputStream input = connection.getInputStream();
-            if (input == null) {
-                Main.error("Failed to connect to the download source.");
+        } else Main.log("Parent folder " + niceName + " already exists.");
+        final File file = new File(parent, fileName);
+        final File metaFile = getMetaFile(file);
+        final Properties meta = readMeta(file);
+        final URL location = new URL(url);
+        if (file.exists() && meta != null && meta.getProperty("segments") != null
+                && !Boolean.parseBoolean(meta.getProperty("complete"))) {
+            Main.log("Resuming the segmented download of " + niceName + ".");
+            if (downloadSegments(location, file, metaFile, meta)) return true;
+            Main.log("Failed to resume the segmented download of " + niceName + ", restarting it.");
+            return downloadStream(location, file, metaFile, niceName, algorithm);
+        }
+        final HttpURLConnection connection = open(location);
+        long resumeFrom = 0;
+        if (file.exists() && meta != null) {
+            final String validator = meta.getProperty("etag", meta.getProperty("last-modified"));
+            if (Boolean.parseBoolean(meta.getProperty("complete"))) {
+                if (meta.getProperty("etag") != null) {
+                    connection.setRequestProperty("If-None-Match", meta.getProperty("etag"));
+                }
+                if (meta.getProperty("last-modified") != null) {
+                    connection.setRequestProperty("If-Modified-Since", meta.getProperty("last-modified"));
+                }
+            } else if (validator != null && file.length() > 0) {
+                resumeFrom = file.length();
+                connection.setRequestProperty("Range", "bytes=" + resumeFrom + "-");
+                connection.setRequestProperty("If-Range", validator);
+            }
+        }
+        Main.log("Downloading " + niceName + " from " + location);
+        final int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            Main.log(niceName + " already exists and is up-to-date, Welcome back! Skipping the download.");
+            connection.disconnect();
+            return true;
+        }
+        if (status == 416 && resumeFrom > 0) { // Range Not Satisfiable, the partial file is unusable.
+            connection.disconnect();
+            Main.log("Failed to resume the download of " + niceName + ", restarting it.");
+            if (!metaFile.delete() || !file.delete()) {
+                Main.error(niceName + " couldn't be deleted. Please manually delete it and re-run the process.");
                 return false;
             }
-            Main.log("Please wait for the download to complete.");
-            final byte[] buffer = new byte[1024];
+            return fetch(url, fileName, niceName, algorithm);
+        }
+        if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_PARTIAL) {
+            Main.error("Failed to connect to the download source (HTTP " + status + ").");
+            return false;
+        }
+        final boolean append = status == HttpURLConnection.HTTP_PARTIAL && resumeFrom > 0;
+        if (append) {
+            Main.log("Resuming the download of " + niceName + " from " + resumeFrom + " bytes.");
+        } else if (file.exists()) {
+            Main.log(niceName + " already exists, Welcome back! Replacing that file now.");
+        }
+        final Properties newMeta = createMeta(connection);
+        final long length = connection.getContentLengthLong();
+        final int parts = (int) Math.min(segments, length / MIN_SEGMENT_SIZE);
+        if (!append && extractor == null && parts > 1 && "bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"))
+                && (newMeta.getProperty("etag") != null || newMeta.getProperty("last-modified") != null)) {
+            connection.disconnect();
+            Main.log("Please wait for the download to complete (" + parts + " segments).");
+            newMeta.setProperty("length", String.valueOf(length));
+            newMeta.setProperty("segments", String.valueOf(parts));
+            if (downloadSegments(location, file, metaFile, newMeta)) return true;
+            Main.log("Segmented download of " + niceName + " failed, falling back to a single stream.");
+            return downloadStream(location, file, metaFile, niceName, algorithm);
+        }
+        return transferStream(connection, file, metaFile, newMeta, append, algorithm);
+    }
+
+    /**
+     * Method to download the file as a single, unconditional, stream replacing any existing file.
+     *
+     * @param location to download from.
+     * @param file     to download to.
+     * @param metaFile to store the metadata of the download within.
+     * @param niceName  of the download.
+     * @param algorithm of the digest computed during the download.
+     * @return {@code true} if the download is successful.
+     * @throws IOException if the download fails.
+     */
+    private boolean downloadStream(@NotNull URL location, @NotNull File file, @NotNull File metaFile,
+                                   @NotNull String niceName, @NotNull String algorithm) throws IOException {
+        final HttpURLConnection connection = open(location);
+        final int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            Main.error("Failed to connect to the download source for " + niceName + " (HTTP " + status + ").");
+            return false;
+        }
+        return transferStream(connection, file, metaFile, createMeta(connection), false, algorithm);
+    }
+
+    /**
+     * Method to transfer the body of the connection to the file.
+     * <p>
+     *     If an {@link #extractor} is present and the whole body is transferred, the body is extracted as it is
+     *     written.
+     *     <br>If the extractor fails, the body is still written to disk and the download isn't marked as
+     *     extracted, so the Zip is extracted from disk (by the {@link ZipExtractor}) instead.
+     * </p>
+     *
+     * @param connection to read the body from.
+     * @param file       to write to.
+     * @param metaFile   to store the metadata of the download within.
+     * @param meta       of the download.
+     * @param append     {@code true} to append the body to the (partial) file.
+     * @param algorithm  of the digest computed during the download.
+     * @return {@code true} if the download is successful.
+     * @throws IOException if the download fails.
+     */
+    private boolean transferStream(@NotNull HttpURLConnection connection, @NotNull File file,
+                                   @NotNull File metaFile, @NotNull Properties meta,
+                                   boolean append, @NotNull String algorithm) throws IOException {
+        meta.setProperty("complete", "false");
+        writeMeta(metaFile, meta);
+        Main.log("Please wait for the download to complete.");
+        final MessageDigest digest = createDigest(algorithm);
+        if (append) update(digest, file); // The resumed prefix has to be part of the digest.
+        final long start = System.nanoTime();
+        final long transferred;
+        try (InputStream input = connection.getInputStream();
+             OutputStream out = new FileOutputStream(file, append)) {
+            if (extractor != null && !append) {
+                ZipExtractor.clearMarker(file);
+                final TeeInputStream tee = new TeeInputStream(input, out, digest);
+                try {
+                    extractor.extract(tee);
+                    streamed = true;
+                } catch (IOException e) {
+                    // For example a layout ZipInputStream cannot read, the Zip is extracted once it is downloaded.
+                    Main.log("Failed to extract " + file.getName() + " whilst downloading (" + e.getMessage()
+                            + "), it will be extracted once it has been downloaded.");
+                }
+                drain(tee); // The remainder (central directory) still has to reach the disk.
+                transferred = tee.transferred;
+            } else {
+                transferred = transfer(input, out, digest);
+            }
+        } finally {
+            Metrics.downloadTime(System.nanoTime() - start);
+        }
+        // A connection closed early may look like the end of the body, the partial file is resumed next time.
+        final long expected = connection.getContentLengthLong();
+        if (expected != -1 && transferred != expected) {
+            streamed = false;
+            throw new IOException("The download ended after " + transferred + " of " + expected + " bytes");
+        }
+        meta.setProperty("complete", "true");
+        storeDigest(file, meta, algorithm, toHex(digest.digest()));
+        writeMeta(metaFile, meta);
+        return true;
+    }
+
+    /**
+     * Method to download the file as several concurrent range requests.
+     * <p>
+     *     The file is preallocated to its full length and each segment is written at its own position through
+     *     a shared {@link FileChannel}.
+     *     <br>Each completed segment is recorded in the metadata, so an interrupted segmented download only
+     *     re-fetches the segments which did not complete.
+     *     <br>Every segment must be answered with '206 Partial Content' and the exact amount of bytes requested,
+     *     otherwise the download fails (and the caller falls back to a single stream).
+     * </p>
+     *
+     * @param location to download from.
+     * @param file     to download to.
+     * @param metaFile to store the metadata of the download within.
+     * @param meta     of the download, including the 'length' and amount of 'segments'.
+     * @return {@code true} if every segment was downloaded and the file has the expected length.
+     * @throws IOException if the file cannot be preallocated.
+     */
+    private boolean downloadSegments(@NotNull URL location, @NotNull File file, @NotNull File metaFile,
+                                     @NotNull Properties meta) throws IOException {
+        final long length;
+        final int parts;
+        try {
+            length = Long.parseLong(meta.getProperty("length"));
+            parts = Integer.parseInt(meta.getProperty("segments"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        final String validator = meta.getProperty("etag", meta.getProperty("last-modified"));
+        if (validator == null || parts < 1 || length < 1) return false;
+        final long size = (length + parts - 1) / parts;
+        meta.setProperty("complete", "false");
+        writeMeta(metaFile, meta);
+        final ExecutorService executor = Executors.newFixedThreadPool(parts, runnable -> {
+            final Thread thread = new Thread(runnable, "BuildTools-Download-Segment");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long started = System.nanoTime();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+            final FileChannel channel = raf.getChannel();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < parts; i++) {
+                final String key = "segment." + i;
+                if (Boolean.parseBoolean(meta.getProperty(key))) continue;
+                final long start = i * size;
+                final long end = Math.min(length, start + size) - 1;
+                futures.add(executor.submit(() -> {
+                    downloadSegment(location, validator, channel, start, end);
+                    synchronized (meta) {
+                        meta.setProperty(key, "true");
+                        writeMeta(metaFile, meta);
+                    }
+                    return null;
+                }));
+            }
+            boolean success = true;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Main.debug(() -> "Segment failed: " + e.getCause());
+                    success = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (!success || channel.size() != length) return false;
+            channel.force(false);
+        } finally {
+            executor.shutdownNow();
+            Metrics.downloadTime(System.nanoTime() - started);
+        }
+        for (int i = 0; i < parts; i++) meta.remove("segment." + i);
+        meta.remove("segments");
+        meta.remove("length");
+        meta.setProperty("complete", "true");
+        writeMeta(metaFile, meta);
+        return true;
+    }
+
+    /**
+     * Method to download a single segment ('start' to 'end', inclusive) into the channel.
+     *
+     * @param location  to download from.
+     * @param validator the 'ETag' or 'Last-Modified' value the segment must match.
+     * @param channel   to write the segment to.
+     * @param start     of the segment.
+     * @param end       of the segment (inclusive).
+     * @throws IOException if the segment cannot be downloaded in full.
+     */
+    private void downloadSegment(@NotNull URL location, @NotNull String validator, @NotNull FileChannel channel,
+                                 long start, long end) throws IOException {
+        final HttpURLConnection connection = open(location);
+        connection.setRequestProperty("Range", "bytes=" + start + "-" + end);
+        connection.setRequestProperty("If-Range", validator);
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+            connection.disconnect();
+            throw new IOException("Server did not honour the range request (HTTP " + connection.getResponseCode() + ")");
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long position = start;
+        try (InputStream input = connection.getInputStream()) {
             int numRead;
-            while ((numRead = input.read(buffer)) != -1) out.write(buffer, 0, numRead);
-            input.close();
-            out.close();
+            while ((numRead = input.read(buffer)) != -1) {
+                if (position + numRead > end + 1) throw new IOException("Segment exceeded its range");
+                final ByteBuffer wrapped = ByteBuffer.wrap(buffer, 0, numRead);
+                while (wrapped.hasRemaining()) position += channel.write(wrapped, position);
+                Metrics.downloaded(numRead);
+            }
+        }
+        if (position != end + 1) {
+            throw new IOException("Segment " + start + "-" + end + " ended early at " + position);
+        }
+    }
+
+    /**
+     * Method to create the metadata of a download from its response headers.
+     *
+     * @param connection of the download.
+     * @return {@link Properties} storing the 'ETag' and 'Last-Modified' headers.
+     */
+    @NotNull
+    private Properties createMeta(@NotNull HttpURLConnection connection) {
+        final Properties meta = new Properties();
+        if (connection.getHeaderField("ETag") != null) {
+            meta.setProperty("etag", connection.getHeaderField("ETag"));
+        }
+        if (connection.getHeaderField("Last-Modified") != null) {
+            meta.setProperty("last-modified", connection.getHeaderField("Last-Modified"));
+        }
+        return meta;
+    }
+
+    /**
+     * Method to open a connection to the given location.
+     *
+     * @param location to connect to.
+     * @return {@link HttpURLConnection} to the location.
+     * @throws IOException if the location isn't a HTTP(S) location or the connection fails.
+     */
+    @NotNull
+    private HttpURLConnection open(@NotNull URL location) throws IOException {
+        final URLConnection connection = location.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException("Unsupported download protocol '" + location.getProtocol() + "'");
+        }
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        return (HttpURLConnection) connection;
+    }
+
+    /**
+     * Method to transfer the input to the output until the input is exhausted, updating the digest on the way.
+     *
+     * @param input  to read from.
+     * @param out    to write to.
+     * @param digest to update with every byte transferred.
+     * @return the amount of bytes transferred.
+     * @throws IOException if either stream fails.
+     */
+    private long transfer(@NotNull InputStream input, @NotNull OutputStream out,
+                          @NotNull MessageDigest digest) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long transferred = 0;
+        int numRead;
+        while ((numRead = input.read(buffer)) != -1) {
+            out.write(buffer, 0, numRead);
+            digest.update(buffer, 0, numRead);
+            Metrics.downloaded(numRead);
+            transferred += numRead;
+        }
+        return transferred;
+    }
+
+    /**
+     * Method to read the input until it is exhausted, discarding what is read.
+     *
+     * @param input to drain.
+     * @throws IOException if the stream fails.
+     */
+    private void drain(@NotNull InputStream input) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        //noinspection StatementWithEmptyBody
+        while (input.read(buffer) != -1) ;
+    }
+
+    /**
+     * Method to verify a completed download, computing its digest if it wasn't computed during the download.
+     * <p>
+     *     The digest is only computed here for segmented downloads (which are not written in order) and for
+     *     files which were downloaded before digests were recorded.
+     * </p>
+     *
+     * @param file           which was downloaded.
+     * @param expectedDigest of the file, or {@code null} to only record the digest.
+     * @param algorithm      of the expected digest.
+     * @param niceName       of the download.
+     * @return {@code true} if the file matches the expected digest.
+     * @throws IOException if the file cannot be hashed.
+     */
+    private boolean verifyDownload(@NotNull File file, @Nullable String expectedDigest,
+                                   @NotNull String algorithm, @NotNull String niceName) throws IOException {
+        final File metaFile = getMetaFile(file);
+        final Properties meta = readMeta(file);
+        if (meta == null) return false;
+        String digest = meta.getProperty("digest");
+        if (digest == null || !algorithm.equals(meta.getProperty("digest.algorithm")) || !isUnchanged(file, meta)) {
+            digest = hash(file, algorithm);
+            storeDigest(file, meta, algorithm, digest);
+            writeMeta(metaFile, meta);
+        }
+        if (expectedDigest != null && !expectedDigest.equalsIgnoreCase(digest)) {
+            Main.error(niceName + " failed verification, expected " + algorithm + " '" + expectedDigest
+                    + "' but found '" + digest + "'. Deleting the download.");
+            if (!file.delete() || !metaFile.delete()) {
+                Main.error(niceName + " couldn't be deleted. Please manually delete it and re-run the process.");
+            }
+            return false;
+        }
+        final String verified = digest;
+        Main.debug(() -> niceName + " " + algorithm + ":\t" + verified);
+        return true;
+    }
+
+    /**
+     * Method to obtain the SHA-256 digest of the given file.
+     * <p>
+     *     The digest recorded during the download is used if the file is unchanged since it was hashed, otherwise
+     *     the file is hashed.
+     * </p>
+     *
+     * @param file to obtain the digest of.
+     * @return the digest (hex).
+     * @throws IOException if the file has to be hashed and cannot be read.
+     */
+    @NotNull
+    public static String sha256(@NotNull File file) throws IOException {
+        final Properties meta = readMeta(file);
+        if (meta != null && "SHA-256".equals(meta.getProperty("digest.algorithm"))
+                && meta.getProperty("digest") != null && isUnchanged(file, meta)) {
+            return meta.getProperty("digest");
+        }
+        return hash(file, "SHA-256");
+    }
+
+    /**
+     * Method to check if the given file is a complete download which still matches its recorded digest.
+     * <p>
+     *     If the size and modification time of the file match those recorded with the digest, the file is trusted
+     *     without hashing it, otherwise it is hashed and compared to the recorded digest.
+     * </p>
+     *
+     * @param file to check.
+     * @return {@code true} if the file is complete and verified.
+     */
+    public static boolean isVerified(@NotNull File file) {
+        final Properties meta = readMeta(file);
+        if (!file.exists() || meta == null || !Boolean.parseBoolean(meta.getProperty("complete"))) return false;
+        final String digest = meta.getProperty("digest");
+        final String algorithm = meta.getProperty("digest.algorithm");
+        if (digest == null || algorithm == null) return false;
+        if (isUnchanged(file, meta)) return true;
+        try {
+            if (!digest.equalsIgnoreCase(hash(file, algorithm))) {
+                Main.error("'" + file.getName() + "' no longer matches its recorded " + algorithm + " digest.");
+                return false;
+            }
+            storeDigest(file, meta, algorithm, digest);
+            writeMeta(getMetaFile(file), meta);
             return true;
         } catch (IOException e) {
-            Main.error("Experienced an " + e.getClass().getSimpleName() + " during execution.");
-            if (e.getMessage() != null) Main.error("Exception's Provided Message:\t" + e.getMessage());
-            e.printStackTrace();
+            Main.debug(() -> "Failed to verify '" + file.getName() + "': " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Method to download a published checksum (for example a '.sha256.txt' file) and extract the digest from it.
+     *
+     * @param url of the checksum file.
+     * @return the digest (hex) or {@code null} if it couldn't be downloaded or parsed.
+     */
+    @Nullable
+    public static String fetchChecksum(@NotNull String url) {
+        try {
+            final URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+                final String line = in.readLine();
+                if (line == null) return null;
+                final String digest = line.trim().split("\\s+")[0];
+                return digest.matches("[0-9a-fA-F]{64}|[0-9a-fA-F]{128}") ? digest.toLowerCase() : null;
+            }
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to download the checksum at '" + url + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Method to determine the digest algorithm from the length of the expected digest.
+     *
+     * @param expectedDigest (hex), or {@code null}.
+     * @return "SHA-512" for 128 character digests, otherwise "SHA-256".
+     */
+    @NotNull
+    private static String algorithmFor(@Nullable String expectedDigest) {
+        return expectedDigest != null && expectedDigest.length() == 128 ? "SHA-512" : "SHA-256";
+    }
+
+    /**
+     * Method to create a {@link MessageDigest} for the given algorithm.
+     *
+     * @param algorithm to create.
+     * @return {@link MessageDigest}.
+     */
+    @NotNull
+    private static MessageDigest createDigest(@NotNull String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Method to hash the given file.
+     *
+     * @param file      to hash.
+     * @param algorithm to hash with.
+     * @return the digest (hex).
+     * @throws IOException if the file cannot be read.
+     */
+    @NotNull
+    private static String hash(@NotNull File file, @NotNull String algorithm) throws IOException {
+        final MessageDigest digest = createDigest(algorithm);
+        update(digest, file);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Method to update the digest with the contents of the given file.
+     *
+     * @param digest to update.
+     * @param file   to read.
+     * @throws IOException if the file cannot be read.
+     */
+    private static void update(@NotNull MessageDigest digest, @NotNull File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int numRead;
+            while ((numRead = in.read(buffer)) != -1) digest.update(buffer, 0, numRead);
+        }
+    }
+
+    /**
+     * Method to convert the given bytes into a lower-case hex String.
+     *
+     * @param bytes to convert.
+     * @return hex String.
+     */
+    @NotNull
+    private static String toHex(byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) builder.append(String.format("%02x", b));
+        return builder.toString();
+    }
+
+    /**
+     * Method to record the digest, size and modification time of the file in its metadata.
+     *
+     * @param file      which was hashed.
+     * @param meta      to record the digest within.
+     * @param algorithm of the digest.
+     * @param digest    (hex).
+     */
+    private static void storeDigest(@NotNull File file, @NotNull Properties meta,
+                                    @NotNull String algorithm, @NotNull String digest) {
+        meta.setProperty("digest.algorithm", algorithm);
+        meta.setProperty("digest", digest);
+        meta.setProperty("size", String.valueOf(file.length()));
+        meta.setProperty("mtime", String.valueOf(file.lastModified()));
+    }
+
+    /**
+     * Method to check if the file still has the size and modification time recorded with its digest.
+     *
+     * @param file to check.
+     * @param meta of the file.
+     * @return {@code true} if the file is unchanged since it was hashed.
+     */
+    private static boolean isUnchanged(@NotNull File file, @NotNull Properties meta) {
+        return String.valueOf(file.length()).equals(meta.getProperty("size"))
+                && String.valueOf(file.lastModified()).equals(meta.getProperty("mtime"));
+    }
+
+    /**
+     * Method to obtain the metadata file stored next to the given file.
+     *
+     * @param file which was downloaded.
+     * @return {@link File} storing the metadata of the download.
+     */
+    @NotNull
+    private static File getMetaFile(@NotNull File file) {
+        return new File(file.getParentFile(), file.getName() + ".properties");
+    }
+
+    /**
+     * Method to read the stored metadata of the given file.
+     *
+     * @param file which was downloaded.
+     * @return {@link Properties} or {@code null} if no (readable) metadata is stored.
+     */
+    @Nullable
+    private static Properties readMeta(@NotNull File file) {
+        final File metaFile = getMetaFile(file);
+        if (!metaFile.exists()) return null;
+        final Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to read the download metadata of '" + file.getName() + "'.");
+            return null;
+        }
+    }
+
+    /**
+     * Method to store the metadata of a download.
+     *
+     * @param metaFile to store the metadata within.
+     * @param meta     to store.
+     * @throws IOException if the metadata cannot be written.
+     */
+    private static void writeMeta(@NotNull File metaFile, @NotNull Properties meta) throws IOException {
+        try (OutputStream out = new FileOutputStream(metaFile)) {
+            meta.store(out, "BuildTools - Master download metadata");
+        }
+    }
+
+    /**
+     * An {@link InputStream} which writes everything read from it to an output and a digest.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+
+        /**
+         * The output everything read is written to.
+         */
+        private final OutputStream out;
+
+        /**
+         * The digest everything read is added to.
+         */
+        private final MessageDigest digest;
+
+        /**
+         * The amount of bytes read.
+         */
+        private long transferred = 0;
+
+        private TeeInputStream(@NotNull InputStream in, @NotNull OutputStream out, @NotNull MessageDigest digest) {
+            super(in);
+            this.out = out;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) {
+                out.write(read);
+                digest.update((byte) read);
+                Metrics.downloaded(1);
+                transferred++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                out.write(b, off, read);
+                digest.update(b, off, read);
+                Metrics.downloaded(read);
+                transferred += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes still have to reach the output, read them instead.
+            final byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(0, n))];
+            final int read = read(buffer, 0, buffer.length);
+            return Math.max(0, read);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+    }
+
 }
@@ -0,0 +1,265 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.tasks.BuildScheduler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * The GitObjectStore class maintains a bare mirror of each repository BuildTools clones.
+ * <p>
+ *     BuildTools clones Bukkit, CraftBukkit, Spigot and BuildData into every version folder, the same objects are
+ *     therefore downloaded and stored once per version.
+ *     <br>Before a version is built, each of its repositories is created as a local clone of the mirror which
+ *     borrows the mirror's objects (through 'objects/info/alternates'), existing repositories are wired to the
+ *     mirror the same way (and repacked to drop their own copy), so BuildTools' own fetch only transfers what the
+ *     mirror doesn't have.
+ *     <br>Mirrors never prune objects ('gc.pruneExpire=never'), as the version repositories depend on them.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 13:40
+ */
+public class GitObjectStore {
+
+    /**
+     * The repositories BuildTools clones, mapped to their upstream location.
+     */
+    private static final Map<String, String> UPSTREAMS = new LinkedHashMap<>();
+
+    static {
+        UPSTREAMS.put("Bukkit", "https://hub.spigotmc.org/stash/scm/spigot/bukkit.git");
+        UPSTREAMS.put("CraftBukkit", "https://hub.spigotmc.org/stash/scm/spigot/craftbukkit.git");
+        UPSTREAMS.put("Spigot", "https://hub.spigotmc.org/stash/scm/spigot/spigot.git");
+        UPSTREAMS.put("BuildData", "https://hub.spigotmc.org/stash/scm/spigot/builddata.git");
+    }
+
+    /**
+     * The folder the mirrors are stored within.
+     */
+    private final File root;
+
+    /**
+     * Constructor to create a GitObjectStore.
+     *
+     * @param root folder to store the mirrors within.
+     */
+    public GitObjectStore(@NotNull File root) {
+        this.root = root;
+    }
+
+    /**
+     * Method to create or update the mirror of every upstream repository.
+     *
+     * @return {@code true} if every mirror is ready to be shared.
+     */
+    public boolean prepareMirrors() {
+        if (!root.exists() && !root.mkdirs() && !root.isDirectory()) {
+            Main.error("Failed to create the shared git object store at '" + root.getPath() + "'.");
+            return false;
+        }
+        if (run(root, "git", "--version") != 0) {
+            Main.error("Git could not be found, version folders will not share a git object store.");
+            return false;
+        }
+        for (Map.Entry<String, String> upstream : UPSTREAMS.entrySet()) {
+            final File mirror = getMirror(upstream.getKey());
+            final long start = System.currentTimeMillis();
+            if (!new File(mirror, "objects").exists()) {
+                Main.log("Creating the shared mirror of " + upstream.getKey() + ".");
+                if (run(root, "git", "clone", "--mirror", upstream.getValue(), mirror.getName()) != 0) {
+                    Main.error("Failed to mirror " + upstream.getKey() + ".");
+                    return false;
+                }
+                run(mirror, "git", "config", "gc.pruneExpire", "never");
+                run(mirror, "git", "config", "gc.reflogExpireUnreachable", "never");
+                final Properties stats = new Properties();
+                stats.setProperty("clone-millis", String.valueOf(System.currentTimeMillis() - start));
+                try (OutputStream out = new FileOutputStream(getStatsFile(upstream.getKey()))) {
+                    stats.store(out, "BuildTools - Master mirror statistics");
+                } catch (IOException e) {
+                    Main.debug(() -> "Failed to store the mirror statistics of " + upstream.getKey() + ".");
+                }
+            } else if (run(mirror, "git", "fetch", "--prune", "origin") != 0) {
+                Main.error("Failed to update the shared mirror of " + upstream.getKey() + ".");
+                return false;
+            }
+            Main.debug(() -> "Prepared the shared mirror of " + upstream.getKey() + " in "
+                    + BuildScheduler.formatDuration(System.currentTimeMillis() - start) + ".");
+        }
+        return true;
+    }
+
+    /**
+     * Method to wire each repository of the given version folder to the shared mirrors.
+     * <p>
+     *     Missing repositories are created as a shared local clone of the mirror (pointed at the upstream), the
+     *     size of the objects borrowed from the mirror (its objects less those the clone stores itself) and the
+     *     clone time avoided are reported.
+     *     <br>Existing repositories have the mirror added to their alternates and are repacked ('repack -a -d -l',
+     *     then 'prune-packed'), dropping their own copy of every object the mirror holds, the space freed is
+     *     reported.
+     * </p>
+     *
+     * @param workspace folder of the version.
+     * @param version   of the workspace.
+     */
+    public void wire(@NotNull File workspace, @NotNull String version) {
+        for (Map.Entry<String, String> upstream : UPSTREAMS.entrySet()) {
+            final File mirror = getMirror(upstream.getKey());
+            final File repository = new File(workspace, upstream.getKey());
+            final long start = System.currentTimeMillis();
+            try {
+                if (new File(repository, ".git").exists()) {
+                    if (!addAlternate(repository, mirror)) continue;
+                    final File objects = new File(repository, ".git/objects");
+                    final long before = size(objects);
+                    // The repository keeps its own copy of each object until it is repacked against the mirror.
+                    if (run(repository, "git", "repack", "-a", "-d", "-l", "-q") != 0
+                            || run(repository, "git", "prune-packed", "-q") != 0) {
+                        Main.error("Failed to repack the existing " + upstream.getKey() + " repository for " + version
+                                + ", it keeps its own copy of the shared objects.");
+                        continue;
+                    }
+                    final long freed = Math.max(0, before - size(objects));
+                    Main.log("Wired the existing " + upstream.getKey() + " repository for " + version
+                            + " to the shared object store, repacking it freed " + (freed / (1024 * 1024))
+                            + " MB in " + BuildScheduler.formatDuration(System.currentTimeMillis() - start) + ".");
+                    continue;
+                }
+                if (repository.exists()) continue; // Not a repository, leave it to BuildTools.
+                if (run(workspace, "git", "clone", "--shared", "--quiet", mirror.getCanonicalPath(),
+                        upstream.getKey()) != 0) {
+                    Main.error("Failed to clone " + upstream.getKey() + " for " + version + " from the shared mirror.");
+                    continue;
+                }
+                run(repository, "git", "remote", "set-url", "origin", upstream.getValue());
+            } catch (IOException e) {
+                Main.error("Failed to wire " + upstream.getKey() + " for " + version + ": " + e.getMessage());
+                continue;
+            }
+            final long took = System.currentTimeMillis() - start;
+            final long avoided = Math.max(0, getCloneMillis(upstream.getKey()) - took);
+            final long local = size(new File(repository, ".git/objects"));
+            final long saved = Math.max(0, size(new File(mirror, "objects")) - local);
+            Main.log("Cloned " + upstream.getKey() + " for " + version + " from the shared object store in "
+                    + BuildScheduler.formatDuration(took) + " (" + (saved / (1024 * 1024)) + " MB of objects borrowed "
+                    + "rather than stored, " + (local / 1024) + " KB stored locally, ~"
+                    + BuildScheduler.formatDuration(avoided) + " of cloning avoided).");
+        }
+    }
+
+    /**
+     * Method to add the mirror's objects to the alternates of the given repository.
+     *
+     * @param repository to add the alternate to.
+     * @param mirror     whose objects are added.
+     * @return {@code true} if the alternate was added, {@code false} if it already existed or couldn't be added.
+     * @throws IOException if the paths cannot be resolved.
+     */
+    private boolean addAlternate(@NotNull File repository, @NotNull File mirror) throws IOException {
+        final File info = new File(repository, ".git/objects/info");
+        final File alternates = new File(info, "alternates");
+        final String objects = new File(mirror, "objects").getCanonicalPath();
+        if (alternates.exists()) {
+            final List<String> lines = Files.readAllLines(alternates.toPath(), StandardCharsets.UTF_8);
+            if (lines.contains(objects)) return false;
+        }
+        if (!info.exists() && !info.mkdirs()) return false;
+        Files.write(alternates.toPath(), (objects + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return true;
+    }
+
+    /**
+     * Method to obtain the mirror of the given repository.
+     *
+     * @param name of the repository.
+     * @return {@link File} of the (bare) mirror.
+     */
+    @NotNull
+    private File getMirror(@NotNull String name) {
+        return new File(root, name + ".git");
+    }
+
+    /**
+     * Method to obtain the statistics file of the given repository's mirror.
+     *
+     * @param name of the repository.
+     * @return {@link File} storing the mirror statistics.
+     */
+    @NotNull
+    private File getStatsFile(@NotNull String name) {
+        return new File(root, name + ".properties");
+    }
+
+    /**
+     * Method to obtain the time (in milliseconds) the initial clone of the given repository took.
+     *
+     * @param name of the repository.
+     * @return the clone time, or {@code 0} if it is unknown.
+     */
+    private long getCloneMillis(@NotNull String name) {
+        final Properties stats = new Properties();
+        try (InputStream in = new FileInputStream(getStatsFile(name))) {
+            stats.load(in);
+            return Long.parseLong(stats.getProperty("clone-millis", "0"));
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Method to calculate the size of the given folder.
+     *
+     * @param folder to calculate the size of.
+     * @return the size in bytes.
+     */
+    private long size(@NotNull File folder) {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Method to run a git command, logging its output in debug mode.
+     *
+     * @param directory to run the command in.
+     * @param command   to run.
+     * @return the exit code of the command, {@code -1} if it couldn't be run.
+     */
+    private int run(@NotNull File directory, @NotNull String... command) {
+        try {
+            final ProcessBuilder builder = new ProcessBuilder(command);
+            builder.directory(directory);
+            builder.redirectErrorStream(true);
+            final Process process = builder.start();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    final String output = line;
+                    if (!output.isEmpty()) Main.debug(() -> "[git] " + output);
+                }
+            }
+            return process.waitFor();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+}
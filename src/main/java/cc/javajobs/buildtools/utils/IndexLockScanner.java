@@ -0,0 +1,157 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The IndexLockScanner finds and deletes the 'index.lock' files git leaves behind when it is interrupted.
+ * <p>
+ *     An 'index.lock' only ever lives directly within a '.git' directory, and BuildTools only clones repositories
+ *     into the top levels of a version folder (for example 'Bukkit' and 'Spigot/Spigot-Server'), each version
+ *     folder is therefore walked to a depth of {@link #MAX_DEPTH}, skipping the working trees BuildTools creates
+ *     ({@link #PRUNED}) and never descending into a '.git' directory.
+ *     <br>Each version folder is walked on its own thread.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 20:05
+ */
+public class IndexLockScanner {
+
+    /**
+     * The deepest a '.git' directory is found below a version folder ('Spigot/Spigot-Server/.git').
+     */
+    private static final int MAX_DEPTH = 3;
+
+    /**
+     * The directories which are never walked, as they can't contain a repository.
+     */
+    private static final Set<String> PRUNED = new HashSet<>(Arrays.asList("work", "target", "src"));
+
+    /**
+     * The name of the lock file.
+     */
+    private static final String INDEX_LOCK = "index.lock";
+
+    /**
+     * The amount of files and directories visited.
+     */
+    private final LongAdder visited = new LongAdder();
+
+    /**
+     * The amount of 'index.lock' files deleted.
+     */
+    private final LongAdder deleted = new LongAdder();
+
+    /**
+     * Method to scan the given version folders, deleting every 'index.lock' found.
+     *
+     * @param folders to scan.
+     * @return the amount of 'index.lock' files deleted by this scan.
+     */
+    public long scan(@NotNull Collection<File> folders) {
+        final long before = deleted.sum();
+        final List<File> existing = new ArrayList<>();
+        for (File folder : folders) if (folder.isDirectory()) existing.add(folder);
+        if (existing.size() == 1) {
+            walk(existing.get(0).toPath());
+            return deleted.sum() - before;
+        }
+        if (existing.isEmpty()) return 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(existing.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+                    final Thread thread = new Thread(runnable, "BuildTools-Lock-Scan");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (File folder : existing) futures.add(executor.submit(() -> walk(folder.toPath())));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Main.debug(() -> "Failed to scan for 'index.lock' files: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return deleted.sum() - before;
+    }
+
+    /**
+     * Method to walk a single version folder.
+     *
+     * @param root of the version folder.
+     */
+    private void walk(@NotNull Path root) {
+        try {
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), MAX_DEPTH, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    visited.increment();
+                    final String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                    if (name.equals(".git")) {
+                        delete(dir.resolve(INDEX_LOCK));
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return PRUNED.contains(name) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    visited.increment();
+                    // A '.git' directory at the maximum depth is visited as a file.
+                    if (attrs.isDirectory() && file.getFileName().toString().equals(".git")) {
+                        delete(file.resolve(INDEX_LOCK));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to scan '" + root + "' for 'index.lock' files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to delete the given 'index.lock', if it exists.
+     *
+     * @param lock to delete.
+     */
+    private void delete(@NotNull Path lock) {
+        try {
+            if (!Files.deleteIfExists(lock)) return;
+            deleted.increment();
+            Main.debug(() -> "Deleted 'index.lock' file: " + lock.toAbsolutePath());
+        } catch (IOException e) {
+            Main.error("Failed to delete 'index.lock' file: " + lock.toAbsolutePath());
+        }
+    }
+
+    // Getters
+
+    public long getVisited() {
+        return visited.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+}
@@ -0,0 +1,287 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The MetadataCache class stores version metadata on disk between runs.
+ * <p>
+ *     CraftBukkit POM lookups are keyed by their (immutable) commit hash and are therefore cached forever.
+ *     <br>Version JSONs are trusted for {@link #ttl} milliseconds, after which they are revalidated using the
+ *     stored 'ETag' and 'Last-Modified' headers, a '304 Not Modified' response re-uses the cached body.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 10:02
+ */
+public class MetadataCache {
+
+    /**
+     * The default time (in minutes) a cached version JSON is trusted without revalidation.
+     */
+    public static final long DEFAULT_TTL_MINUTES = 60;
+
+    /**
+     * The folders the POM and JSON data are cached within.
+     */
+    private final File pomFolder, jsonFolder;
+
+    /**
+     * The time (in milliseconds) a cached version JSON is trusted without revalidation.
+     */
+    private final long ttl;
+
+    /**
+     * Counters for the cache report.
+     * <p>
+     *     A 'hit' is served without any network I/O, a 'revalidation' is a '304 Not Modified' response, a
+     *     'miss' is a full download and a 'stale' response is an expired JSON served as it couldn't be revalidated.
+     * </p>
+     */
+    private final AtomicInteger hits = new AtomicInteger(), revalidations = new AtomicInteger(),
+            misses = new AtomicInteger(), stale = new AtomicInteger();
+
+    /**
+     * Constructor to create a MetadataCache.
+     *
+     * @param folder     to store the cache within.
+     * @param ttlMinutes the time (in minutes) a cached version JSON is trusted without revalidation.
+     */
+    public MetadataCache(@NotNull File folder, long ttlMinutes) {
+        this.pomFolder = new File(folder, "pom");
+        this.jsonFolder = new File(folder, "json");
+        this.ttl = TimeUnit.MINUTES.toMillis(Math.max(0, ttlMinutes));
+        if ((!pomFolder.exists() && !pomFolder.mkdirs()) || (!jsonFolder.exists() && !jsonFolder.mkdirs())) {
+            Main.error("Failed to create the metadata cache at '" + folder.getPath() + "'.");
+        }
+    }
+
+    /**
+     * Method to obtain the cached NMS Version of the given CraftBukkit commit.
+     *
+     * @param commit of CraftBukkit.
+     * @return NMS Version or {@code null} if it hasn't been cached.
+     */
+    @Nullable
+    public String getPom(@NotNull String commit) {
+        final File file = new File(pomFolder, commit);
+        if (file.exists()) {
+            try {
+                final String nms = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+                if (!nms.isEmpty()) {
+                    hits.incrementAndGet();
+                    return nms;
+                }
+            } catch (IOException e) {
+                Main.debug(() -> "Failed to read cached POM data for " + commit + ": " + e.getMessage());
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Method to store the NMS Version of the given CraftBukkit commit.
+     *
+     * @param commit of CraftBukkit.
+     * @param nms    version resolved from the commit's POM.
+     */
+    public void putPom(@NotNull String commit, @NotNull String nms) {
+        write(new File(pomFolder, commit), nms.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to obtain the contents of a version JSON, downloading or revalidating it if required.
+     * <p>
+     *     If an expired JSON cannot be revalidated (the SpigotMC Hub is unreachable or answers with an error), the
+     *     cached JSON is served stale rather than failing.
+     *     <br>A JSON whose metadata cannot be read is treated as a miss.
+     * </p>
+     *
+     * @param url of the version JSON.
+     * @param name of the version JSON (for example '1.19.2.json').
+     * @return the contents of the version JSON.
+     * @throws IOException if the JSON cannot be downloaded and isn't cached.
+     */
+    @NotNull
+    public String getVersionJson(@NotNull String url, @NotNull String name) throws IOException {
+        final File body = new File(jsonFolder, name);
+        final File metaFile = new File(jsonFolder, name + ".properties");
+        final Properties meta = readMeta(body, metaFile);
+        final boolean cached = meta != null;
+        if (cached && System.currentTimeMillis() - Long.parseLong(meta.getProperty("fetched")) < ttl) {
+            hits.incrementAndGet();
+            return read(body);
+        }
+        try {
+            final URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(MinecraftVersion.TIMEOUT);
+            connection.setReadTimeout(MinecraftVersion.TIMEOUT);
+            if (cached) {
+                final String etag = meta.getProperty("etag");
+                final String lastModified = meta.getProperty("last-modified");
+                if (etag != null) connection.setRequestProperty("If-None-Match", etag);
+                if (lastModified != null) connection.setRequestProperty("If-Modified-Since", lastModified);
+                if (connection instanceof HttpURLConnection
+                        && ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    revalidations.incrementAndGet();
+                    meta.setProperty("fetched", String.valueOf(System.currentTimeMillis()));
+                    writeMeta(metaFile, meta);
+                    return read(body);
+                }
+            }
+            final String json;
+            try (InputStream in = connection.getInputStream()) {
+                json = new String(readFully(in), StandardCharsets.UTF_8);
+            }
+            misses.incrementAndGet();
+            write(body, json.getBytes(StandardCharsets.UTF_8));
+            final Properties fetched = new Properties();
+            fetched.setProperty("fetched", String.valueOf(System.currentTimeMillis()));
+            if (connection.getHeaderField("ETag") != null) {
+                fetched.setProperty("etag", connection.getHeaderField("ETag"));
+            }
+            if (connection.getHeaderField("Last-Modified") != null) {
+                fetched.setProperty("last-modified", connection.getHeaderField("Last-Modified"));
+            }
+            writeMeta(metaFile, fetched);
+            return json;
+        } catch (IOException e) {
+            if (!cached) throw e;
+            stale.incrementAndGet();
+            Main.debug(() -> "Serving the cached " + name + " as it couldn't be revalidated: " + e.getMessage());
+            return read(body);
+        }
+    }
+
+    /**
+     * Method to read the metadata of a cached version JSON.
+     *
+     * @param body     of the cached JSON.
+     * @param metaFile storing the metadata of the JSON.
+     * @return {@link Properties} including a numeric 'fetched' time, or {@code null} if the JSON isn't cached or
+     * its metadata is missing or corrupt.
+     */
+    @Nullable
+    private Properties readMeta(@NotNull File body, @NotNull File metaFile) {
+        if (!body.exists() || !metaFile.exists()) return null;
+        final Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+            Long.parseLong(meta.getProperty("fetched"));
+            return meta;
+        } catch (IOException | IllegalArgumentException e) { // Including a missing or malformed 'fetched' time.
+            Main.debug(() -> "Ignoring the corrupt cache metadata of " + body.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Method to log the hit/miss counts of the cache.
+     */
+    public void report() {
+        final int hit = hits.get(), revalidated = revalidations.get(), miss = misses.get(), expired = stale.get();
+        final int total = hit + revalidated + miss + expired;
+        Main.log("Metadata Cache:\t" + hit + " hits, " + revalidated + " revalidated, " + miss + " misses"
+                + (expired == 0 ? "" : ", " + expired + " served stale")
+                + (total == 0 ? "." : " (" + (100 * (hit + revalidated + expired) / total) + "% served from cache)."));
+    }
+
+    // Getters
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getRevalidations() {
+        return revalidations.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getStale() {
+        return stale.get();
+    }
+
+    // Helpers.
+
+    /**
+     * Method to read the given file as a UTF-8 String.
+     *
+     * @param file to read.
+     * @return contents of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    @NotNull
+    private String read(@NotNull File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to read the given stream until it is exhausted.
+     *
+     * @param in to read.
+     * @return bytes read.
+     * @throws IOException if the stream cannot be read.
+     */
+    @NotNull
+    private byte[] readFully(@NotNull InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int numRead;
+        while ((numRead = in.read(buffer)) != -1) out.write(buffer, 0, numRead);
+        return out.toByteArray();
+    }
+
+    /**
+     * Method to store the given properties.
+     *
+     * @param file to store them within.
+     * @param meta to store.
+     */
+    private void writeMeta(@NotNull File file, @NotNull Properties meta) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            meta.store(out, null);
+        } catch (IOException ignored) {
+        }
+        write(file, out.toByteArray());
+    }
+
+    /**
+     * Method to atomically write the given data to the file.
+     * <p>
+     *     The data is written to a temporary file which is then moved over the target, so concurrent readers
+     *     (or a crash) never observe a partially written entry.
+     * </p>
+     *
+     * @param file to write.
+     * @param data to write.
+     */
+    private void write(@NotNull File file, byte[] data) {
+        try {
+            final Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to cache '" + file.getName() + "': " + e.getMessage());
+        }
+    }
+
+}
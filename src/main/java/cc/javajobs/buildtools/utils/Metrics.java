@@ -0,0 +1,282 @@
+package cc.javajobs.buildtools.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Metrics class collects the live metrics of the orchestrator, exposed by the {@link MetricsServer}.
+ * <p>
+ *     Every counter is a {@link LongAdder}, so recording a metric never blocks the thread recording it, the
+ *     metrics are only combined when they are rendered.
+ *     <br>Metrics are rendered in the Prometheus text exposition format (version 0.0.4).
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 19:10
+ */
+public final class Metrics {
+
+    /**
+     * The upper bounds (in seconds) of the build duration histogram buckets.
+     */
+    private static final long[] DURATION_BUCKETS = {60, 120, 300, 600, 900, 1200, 1800, 2700, 3600, 7200};
+
+    /**
+     * The builds waiting to start and the builds running.
+     */
+    private static final LongAdder queued = new LongAdder(), running = new LongAdder();
+
+    /**
+     * The builds which succeeded and failed.
+     */
+    private static final LongAdder succeeded = new LongAdder(), failed = new LongAdder();
+
+    /**
+     * The duration histogram of each version.
+     */
+    private static final Map<String, Histogram> durations = new ConcurrentHashMap<>();
+
+    /**
+     * The bytes downloaded and the time (in nanoseconds) spent transferring them.
+     */
+    private static final LongAdder downloadBytes = new LongAdder(), downloadNanos = new LongAdder();
+
+    /**
+     * The archives extracted, the entries extracted and the time (in nanoseconds) spent extracting them.
+     */
+    private static final LongAdder extractions = new LongAdder(), extractedEntries = new LongAdder(),
+            extractionNanos = new LongAdder();
+
+    /**
+     * The metadata cache of the sweep, {@code null} until it is created.
+     */
+    private static volatile MetadataCache metadataCache = null;
+
+    private Metrics() {
+        throw new UnsupportedOperationException("Metrics is a utility class");
+    }
+
+    /**
+     * Method to record a build which was submitted and is waiting to start.
+     */
+    public static void buildQueued() {
+        queued.increment();
+    }
+
+    /**
+     * Method to record a build which left the queue and started.
+     */
+    public static void buildStarted() {
+        queued.decrement();
+        running.increment();
+    }
+
+    /**
+     * Method to record a build which finished.
+     *
+     * @param version  which was built.
+     * @param started  {@code true} if the build had started (rather than failing in the queue).
+     * @param success  of the build.
+     * @param duration of the build in milliseconds.
+     */
+    public static void buildFinished(@NotNull String version, boolean started, boolean success, long duration) {
+        if (started) {
+            running.decrement();
+            durations.computeIfAbsent(version, key -> new Histogram()).observe(duration);
+        } else queued.decrement();
+        (success ? succeeded : failed).increment();
+    }
+
+    /**
+     * Method to record bytes which were downloaded.
+     *
+     * @param bytes downloaded.
+     */
+    public static void downloaded(long bytes) {
+        downloadBytes.add(bytes);
+    }
+
+    /**
+     * Method to record the time spent transferring a download.
+     *
+     * @param nanos spent transferring the download.
+     */
+    public static void downloadTime(long nanos) {
+        downloadNanos.add(nanos);
+    }
+
+    /**
+     * Method to record an extracted archive.
+     *
+     * @param entries extracted.
+     * @param nanos   spent extracting the archive.
+     */
+    public static void extracted(int entries, long nanos) {
+        extractions.increment();
+        extractedEntries.add(entries);
+        extractionNanos.add(nanos);
+    }
+
+    /**
+     * Method to set the metadata cache whose hit ratio is exposed.
+     *
+     * @param cache of the sweep, or {@code null}.
+     */
+    public static void setMetadataCache(@Nullable MetadataCache cache) {
+        metadataCache = cache;
+    }
+
+    /**
+     * Method to render every metric in the Prometheus text exposition format.
+     *
+     * @return the rendered metrics.
+     */
+    @NotNull
+    public static String render() {
+        final StringBuilder out = new StringBuilder();
+        gauge(out, "buildtools_builds_queued", "Builds waiting for their prerequisites or a free slot.", queued.sum());
+        gauge(out, "buildtools_builds_running", "Builds currently running.", running.sum());
+        counter(out, "buildtools_builds_succeeded_total", "Builds which produced their artifact.", succeeded.sum());
+        counter(out, "buildtools_builds_failed_total", "Builds which failed.", failed.sum());
+        out.append("# HELP buildtools_build_duration_seconds Duration of each build, by version.\n");
+        out.append("# TYPE buildtools_build_duration_seconds histogram\n");
+        new TreeMap<>(durations).forEach((version, histogram) -> histogram.render(out, version));
+        final long bytes = downloadBytes.sum(), nanos = downloadNanos.sum();
+        counter(out, "buildtools_download_bytes_total", "Bytes downloaded.", bytes);
+        counter(out, "buildtools_download_seconds_total", "Time spent transferring downloads.", seconds(nanos));
+        gauge(out, "buildtools_download_throughput_bytes_per_second", "Average download throughput.",
+                nanos == 0 ? 0 : bytes / seconds(nanos));
+        final MetadataCache cache = metadataCache;
+        if (cache != null) {
+            final long hits = cache.getHits(), revalidations = cache.getRevalidations(), misses = cache.getMisses();
+            final long total = hits + revalidations + misses;
+            out.append("# HELP buildtools_metadata_cache_requests_total Metadata requests, by how they were served.\n");
+            out.append("# TYPE buildtools_metadata_cache_requests_total counter\n");
+            out.append("buildtools_metadata_cache_requests_total{result=\"hit\"} ").append(hits).append('\n');
+            out.append("buildtools_metadata_cache_requests_total{result=\"revalidated\"} ").append(revalidations)
+                    .append('\n');
+            out.append("buildtools_metadata_cache_requests_total{result=\"miss\"} ").append(misses).append('\n');
+            gauge(out, "buildtools_metadata_cache_hit_ratio", "Share of metadata requests served from the cache.",
+                    total == 0 ? 0 : (double) (hits + revalidations) / total);
+        }
+        out.append("# HELP buildtools_extraction_seconds Time spent extracting archives.\n");
+        out.append("# TYPE buildtools_extraction_seconds summary\n");
+        out.append("buildtools_extraction_seconds_sum ").append(seconds(extractionNanos.sum())).append('\n');
+        out.append("buildtools_extraction_seconds_count ").append(extractions.sum()).append('\n');
+        counter(out, "buildtools_extraction_entries_total", "Entries extracted from archives.", extractedEntries.sum());
+        return out.toString();
+    }
+
+    /**
+     * Method to render a gauge.
+     *
+     * @param out   to render into.
+     * @param name  of the gauge.
+     * @param help  describing the gauge.
+     * @param value of the gauge.
+     */
+    private static void gauge(@NotNull StringBuilder out, @NotNull String name, @NotNull String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * Method to render a counter.
+     *
+     * @param out   to render into.
+     * @param name  of the counter.
+     * @param help  describing the counter.
+     * @param value of the counter.
+     */
+    private static void counter(@NotNull StringBuilder out, @NotNull String name, @NotNull String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * Method to format a sample value, whole numbers are formatted without a fraction or exponent.
+     *
+     * @param value to format.
+     * @return the formatted value.
+     */
+    @NotNull
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE ? String.valueOf((long) value)
+                : String.valueOf(value);
+    }
+
+    /**
+     * Method to convert nanoseconds into seconds.
+     *
+     * @param nanos to convert.
+     * @return the seconds.
+     */
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * A histogram of build durations.
+     */
+    private static class Histogram {
+
+        /**
+         * The observations within each bucket of {@link #DURATION_BUCKETS} (not cumulative), the last being '+Inf'.
+         */
+        private final LongAdder[] buckets = new LongAdder[DURATION_BUCKETS.length + 1];
+
+        /**
+         * The sum (in milliseconds) of every observation.
+         */
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        /**
+         * Method to observe a duration.
+         *
+         * @param duration in milliseconds.
+         */
+        private void observe(long duration) {
+            int bucket = 0;
+            while (bucket < DURATION_BUCKETS.length && duration > TimeUnit.SECONDS.toMillis(DURATION_BUCKETS[bucket])) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sum.add(duration);
+        }
+
+        /**
+         * Method to render the histogram.
+         *
+         * @param out     to render into.
+         * @param version the histogram stands for.
+         */
+        private void render(@NotNull StringBuilder out, @NotNull String version) {
+            final String label = "version=\"" + version.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                out.append("buildtools_build_duration_seconds_bucket{").append(label).append(",le=\"")
+                        .append(i == DURATION_BUCKETS.length ? "+Inf" : String.valueOf(DURATION_BUCKETS[i]))
+                        .append("\"} ").append(cumulative).append('\n');
+            }
+            out.append("buildtools_build_duration_seconds_sum{").append(label).append("} ")
+                    .append(sum.sum() / 1000.0).append('\n');
+            out.append("buildtools_build_duration_seconds_count{").append(label).append("} ").append(cumulative)
+                    .append('\n');
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The MetricsServer exposes the {@link Metrics} over HTTP, at '/metrics', for Prometheus to scrape.
+ * <p>
+ *     The server is the HTTP server built into the JDK, requests are served by a single daemon thread so
+ *     scraping never competes with the builds.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 19:10
+ */
+public class MetricsServer {
+
+    /**
+     * The content type of the Prometheus text exposition format.
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * The underlying HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * The executor serving requests.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor to create and start a MetricsServer.
+     *
+     * @param port to listen on (every interface).
+     * @throws IOException if the port cannot be bound.
+     */
+    public MetricsServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "BuildTools-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        Main.log("Serving metrics at http://localhost:" + server.getAddress().getPort() + "/metrics");
+    }
+
+    /**
+     * Method to answer a request with the rendered metrics.
+     *
+     * @param exchange of the request.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Method to stop the server, once the sweep is complete.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,241 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The RunJournal class records the progress of a sweep, so an interrupted sweep can be resumed.
+ * <p>
+ *     The journal stores the versions of the sweep (in build order), the {@link State} of each version and the
+ *     Spigot Artifact each successful build produced.
+ *     <br>It is written to a temporary file which is moved into place after every transition, the journal on
+ *     disk is therefore always complete, even if the process is killed.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 15:55
+ */
+public class RunJournal {
+
+    /**
+     * The file the journal is stored as.
+     */
+    private final File file;
+
+    /**
+     * The versions of the sweep, in build order.
+     */
+    private final List<String> versions = new ArrayList<>();
+
+    /**
+     * The state of each version.
+     */
+    private final Map<String, State> states = new HashMap<>();
+
+    /**
+     * The Spigot Artifact produced by each successful build.
+     */
+    private final Map<String, File> outputs = new HashMap<>();
+
+    /**
+     * The size of the Spigot Artifact produced by each successful build.
+     */
+    private final Map<String, Long> outputSizes = new HashMap<>();
+
+    /**
+     * Constructor to create an empty RunJournal.
+     *
+     * @param file to store the journal as.
+     */
+    public RunJournal(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Method to load the journal stored as the given file.
+     *
+     * @param file the journal is stored as.
+     * @return {@link RunJournal} or {@code null} if no (readable) journal is stored.
+     */
+    @Nullable
+    public static RunJournal load(@NotNull File file) {
+        if (!file.exists()) return null;
+        final Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            Main.error("Failed to read the run journal: " + e.getMessage());
+            return null;
+        }
+        final RunJournal journal = new RunJournal(file);
+        final String versions = properties.getProperty("versions", "");
+        for (String version : versions.split(",")) {
+            if (version.isEmpty()) continue;
+            journal.versions.add(version);
+            try {
+                journal.states.put(version, State.valueOf(properties.getProperty("state." + version, "PENDING")));
+            } catch (IllegalArgumentException e) {
+                journal.states.put(version, State.PENDING);
+            }
+            final String output = properties.getProperty("output." + version);
+            if (output == null) continue;
+            journal.outputs.put(version, new File(output));
+            try {
+                journal.outputSizes.put(version, Long.parseLong(properties.getProperty("output.size." + version, "-1")));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Method to begin a new sweep of the given versions, each of which is pending.
+     *
+     * @param versions of the sweep, in build order.
+     */
+    public synchronized void begin(@NotNull List<String> versions) {
+        this.versions.clear();
+        this.states.clear();
+        this.outputs.clear();
+        this.outputSizes.clear();
+        this.versions.addAll(versions);
+        versions.forEach(version -> states.put(version, State.PENDING));
+        write();
+    }
+
+    /**
+     * Method to record that the given version has moved to the given state.
+     *
+     * @param version which transitioned.
+     * @param state   of the version.
+     */
+    public synchronized void transition(@NotNull String version, @NotNull State state) {
+        states.put(version, state);
+        if (state != State.SUCCEEDED) {
+            outputs.remove(version);
+            outputSizes.remove(version);
+        }
+        write();
+    }
+
+    /**
+     * Method to record that the given version succeeded, producing the given artifact.
+     *
+     * @param version  which succeeded.
+     * @param artifact which was produced.
+     */
+    public synchronized void succeeded(@NotNull String version, @NotNull File artifact) {
+        states.put(version, State.SUCCEEDED);
+        outputs.put(version, artifact);
+        outputSizes.put(version, artifact.length());
+        write();
+    }
+
+    /**
+     * Method to check if the given version succeeded and its artifact is still present.
+     * <p>
+     *     This is a quick check of the artifact's existence and size, it is not hashed.
+     * </p>
+     *
+     * @param version to check.
+     * @return {@code true} if the version doesn't need to be built again.
+     */
+    public synchronized boolean isTrusted(@NotNull String version) {
+        if (states.get(version) != State.SUCCEEDED) return false;
+        final File output = outputs.get(version);
+        return output != null && output.isFile() && output.length() == outputSizes.getOrDefault(version, -1L);
+    }
+
+    /**
+     * Method to check if every version of the sweep succeeded.
+     *
+     * @return {@code true} if there is nothing to resume.
+     */
+    public synchronized boolean isFinished() {
+        return states.values().stream().allMatch(state -> state == State.SUCCEEDED);
+    }
+
+    /**
+     * Method to obtain the versions of the sweep.
+     *
+     * @return {@link List} of versions, in build order.
+     */
+    @NotNull
+    public synchronized List<String> getVersions() {
+        return new ArrayList<>(versions);
+    }
+
+    /**
+     * Method to obtain the state of the given version.
+     *
+     * @param version to obtain the state of.
+     * @return {@link State} or {@code null} if the version isn't part of the sweep.
+     */
+    @Nullable
+    public synchronized State getState(@NotNull String version) {
+        return states.get(version);
+    }
+
+    /**
+     * Method to write the journal atomically.
+     */
+    private void write() {
+        final Properties properties = new Properties();
+        properties.setProperty("versions", String.join(",", versions));
+        for (String version : versions) {
+            properties.setProperty("state." + version, states.getOrDefault(version, State.PENDING).name());
+            final File output = outputs.get(version);
+            if (output == null) continue;
+            properties.setProperty("output." + version, output.getPath());
+            properties.setProperty("output.size." + version, String.valueOf(outputSizes.getOrDefault(version, -1L)));
+        }
+        try {
+            final File parent = file.getAbsoluteFile().getParentFile();
+            if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Failed to create '" + parent.getPath() + "'");
+            }
+            final Path temp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "BuildTools - Master run journal");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Main.error("Failed to write the run journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The state of a version within a sweep.
+     */
+    public enum State {
+
+        /**
+         * The version hasn't been started.
+         */
+        PENDING,
+
+        /**
+         * BuildTools is running for the version.
+         */
+        RUNNING,
+
+        /**
+         * The version produced its Spigot Artifact.
+         */
+        SUCCEEDED,
+
+        /**
+         * The version failed to produce its Spigot Artifact.
+         */
+        FAILED
+
+    }
+
+}
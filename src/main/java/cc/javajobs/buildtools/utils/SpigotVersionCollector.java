@@ -2,7 +2,9 @@ package cc.javajobs.buildtools.utils;
 
 import cc.javajobs.buildtools.Main;
 import cc.javajobs.buildtools.obj.MinecraftVersion;
+import cc.javajobs.buildtools.obj.VersionSelector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -10,9 +12,21 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.net.URLConnection;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -28,7 +42,39 @@ import java.util.stream.Collectors;
 public class SpigotVersionCollector {
 
     /**
-     * Map of Versions corresponding to their NMS Versions.
+     * The maximum amount of versions being resolved (JSON and POM) at once.
+     */
+    private static final int MAX_IN_FLIGHT = 8;
+
+    /**
+     * The maximum time (in milliseconds) a single version may take to resolve.
+     * <p>
+     * A version makes two round-trips (its JSON, then its POM), each of which may take {@link MinecraftVersion#TIMEOUT}
+     * to connect and again to read.
+     * <br>Versions resolve in waves of {@link #MAX_IN_FLIGHT}, the whole discovery therefore waits for at most this
+     * long per wave, rather than this long per version.
+     * </p>
+     */
+    private static final long VERSION_TIMEOUT = 4L * MinecraftVersion.TIMEOUT;
+
+    /**
+     * The listing of every version on the SpigotMC Hub.
+     */
+    private static final String VERSIONS_URL = "https://hub.spigotmc.org/versions/";
+
+    /**
+     * The location of the CraftBukkit POM, followed by the commit to resolve.
+     */
+    private static final String POM_URL = "https://hub.spigotmc.org/stash/projects/SPIGOT/repos/craftbukkit/raw/pom.xml?at=";
+
+    /**
+     * The modification date which follows each file in the listing, for example '05-Aug-2022 09:53'.
+     */
+    private static final Pattern LISTING_DATE = Pattern.compile("\\d{2}-\\w{3}-\\d{4} \\d{2}:\\d{2}");
+
+    /**
+     * Map of Versions corresponding to their NMS Versions (or to themselves, if every selected version of an NMS
+     * Version is built).
      */
     private final Map<String, MinecraftVersion> versionMap = new TreeMap<>();
 
@@ -39,20 +85,122 @@ public class SpigotVersionCollector {
      */
     private final List<MinecraftVersion> minecraftVersions;
 
+    /**
+     * The cache used to avoid re-downloading version JSONs and POMs, {@code null} if caching is disabled.
+     */
+    private final MetadataCache cache;
+
+    /**
+     * The versions which are built, {@code null} to build the latest version of each NMS Version.
+     */
+    private final VersionSelector selector;
+
+    /**
+     * The listing of every version and the location of the CraftBukkit POM (followed by the commit).
+     */
+    private final String versionsUrl, pomUrl;
+
+    /**
+     * The maximum amount of versions being resolved at once.
+     */
+    private final int inFlight;
+
     /**
      * Constructor to scrape and allocate Versions into the {@link #versionMap}.
      *
      * @throws Exception upon error.
      */
     public SpigotVersionCollector(boolean reverseVersions) throws Exception {
+        this(reverseVersions, null);
+    }
+
+    /**
+     * Constructor to scrape and allocate Versions into the {@link #versionMap} using the given cache.
+     *
+     * @param reverseVersions to reverse the order of the versions.
+     * @param cache           to resolve version metadata through, or {@code null} to always download it.
+     * @throws Exception upon error.
+     */
+    public SpigotVersionCollector(boolean reverseVersions, @Nullable MetadataCache cache) throws Exception {
+        this((VersionSelector) null, reverseVersions, cache);
+    }
+
+    /**
+     * Constructor to scrape and allocate the selected Versions into the {@link #versionMap} using the given cache.
+     * <p>
+     * Versions which the selector rejects by their name or listing date are never resolved.
+     * </p>
+     *
+     * @param selector        of the versions to build, or {@code null} for the latest version of each NMS Version.
+     * @param reverseVersions to reverse the order of the versions.
+     * @param cache           to resolve version metadata through, or {@code null} to always download it.
+     * @throws Exception upon error.
+     */
+    public SpigotVersionCollector(@Nullable VersionSelector selector, boolean reverseVersions,
+                                  @Nullable MetadataCache cache) throws Exception {
+        this(VERSIONS_URL, POM_URL, MAX_IN_FLIGHT, selector, reverseVersions, cache);
+    }
+
+    /**
+     * Constructor to scrape and allocate the selected Versions from the given locations (for example a local mirror).
+     *
+     * @param versionsUrl     the listing of every version, ending with '/'.
+     * @param pomUrl          the location of the CraftBukkit POM, followed by the commit to resolve.
+     * @param inFlight        the maximum amount of versions being resolved at once.
+     * @param selector        of the versions to build, or {@code null} for the latest version of each NMS Version.
+     * @param reverseVersions to reverse the order of the versions.
+     * @param cache           to resolve version metadata through, or {@code null} to always download it.
+     * @throws Exception upon error.
+     */
+    SpigotVersionCollector(@NotNull String versionsUrl, @NotNull String pomUrl, int inFlight,
+                           @Nullable VersionSelector selector, boolean reverseVersions,
+                           @Nullable MetadataCache cache) throws Exception {
+        this.cache = cache;
+        this.selector = selector;
+        this.versionsUrl = versionsUrl;
+        this.pomUrl = pomUrl;
+        this.inFlight = Math.max(1, inFlight);
         Main.log("Scraping for Versions from the SpigotMC Hub.");
         this.discoverVersionsFromSpigotMC();
+        this.minecraftVersions = collect(reverseVersions);
+    }
+
+    /**
+     * Constructor to resolve only the given Versions (for example those of an interrupted run) using the given
+     * cache, without scraping the SpigotMC Hub for the listing.
+     *
+     * @param versions        to resolve, for example '1.19.2'.
+     * @param reverseVersions to reverse the order of the versions.
+     * @param cache           to resolve version metadata through, or {@code null} to always download it.
+     * @throws Exception upon error.
+     */
+    public SpigotVersionCollector(@NotNull List<String> versions, boolean reverseVersions,
+                                  @Nullable MetadataCache cache) throws Exception {
+        this.cache = cache;
+        this.selector = null;
+        this.versionsUrl = VERSIONS_URL;
+        this.pomUrl = POM_URL;
+        this.inFlight = MAX_IN_FLIGHT;
+        Main.log("Resolving " + versions.size() + " Versions from the SpigotMC Hub.");
+        this.resolveVersions(versions.stream().map(version -> version + ".json").collect(Collectors.toList()));
+        this.minecraftVersions = collect(reverseVersions);
+    }
+
+    /**
+     * Method to report the cache and order the resolved versions.
+     *
+     * @param reverseVersions to reverse the order of the versions.
+     * @return {@link List} of the resolved versions.
+     */
+    @NotNull
+    private List<MinecraftVersion> collect(boolean reverseVersions) {
+        if (cache != null) cache.report();
         Main.log("Found Versions:");
         final List<MinecraftVersion> mvers = new ArrayList<>(versionMap.values());
         if (reverseVersions) mvers.sort(Comparator.reverseOrder());
         else mvers.sort(Comparator.naturalOrder());
-        this.minecraftVersions = mvers;
-        Main.log(minecraftVersions.stream().map(MinecraftVersion::toString).collect(Collectors.joining(", ")));
+        Main.log(mvers.stream().map(MinecraftVersion::toString).collect(Collectors.joining(", ")));
+        return mvers;
     }
 
     /**
@@ -72,32 +220,121 @@ public class SpigotVersionCollector {
      * The <a href="https://hub.spigotmc.org/versions/">URL</a> downloaded via Jsoup contains HTML 'a' tag elements.
      * Each 'a' element corresponds to a buildable version of SpigotMC, for the sake of this project,
      * versions which conform to 'x.x.x' or 'x.x' are collected, ignoring any other format.
+     * <br>When a {@link #selector} is present, versions it rejects by name or by the modification date listed
+     * next to each link are dropped here, before their JSON or POM is fetched.
      * </p>
      *
      * @throws Exception if the connection couldn't be made (Internet Connection Required).
+     * @see #resolveVersions(List)
      */
     private void discoverVersionsFromSpigotMC() throws Exception {
-        final String url = "https://hub.spigotmc.org/versions/";
         // Connect and download the webpage's HTML.
-        final Connection connect = Jsoup.connect(url);
+        final Connection connect = Jsoup.connect(versionsUrl);
         final Document document = connect.get();
         // Find all 'a' tags (links)
         final Elements aTagElements = document.getElementsByTag("a");
-        final List<MinecraftVersion> minecraftVersions = new ArrayList<>();
+        final List<String> files = new ArrayList<>();
+        int skipped = 0, undated = 0;
         // For each link - check if it conforms to 'x.x.x' or 'x.x'.
         for (final Element aTagElement : aTagElements) {
             final String text = aTagElement.text();
-            if (text.matches("\\d\\.\\d{1,2}(\\.json|\\.\\d{1,2}\\.json)")) {
-                // Create a Version object for this 'a' tag.
-                final MinecraftVersion minecraftVersion = new MinecraftVersion(text, url);
-                minecraftVersions.add(minecraftVersion);
+            if (!text.matches("\\d\\.\\d{1,2}(\\.json|\\.\\d{1,2}\\.json)")) continue;
+            if (selector != null) {
+                final long modified = selector.isDateSelected() ? getListingDate(aTagElement) : -1;
+                if (selector.isDateSelected() && modified == -1) undated++;
+                if (!selector.accepts(text, modified)) {
+                    skipped++;
+                    continue;
+                }
+            }
+            files.add(text);
+        }
+        if (selector != null) {
+            Main.log("Selected " + files.size() + " Versions (" + selector + "), skipping " + skipped + ".");
+            if (undated != 0) Main.log(undated + " Versions had no readable date, they have been selected.");
+        }
+        resolveVersions(files);
+    }
+
+    /**
+     * Method to read the modification date listed after the given link.
+     *
+     * @param aTagElement of the version within the listing.
+     * @return the date (in milliseconds), or {@code -1} if it couldn't be read.
+     */
+    private long getListingDate(@NotNull Element aTagElement) {
+        if (aTagElement.nextSibling() == null) return -1;
+        final Matcher matcher = LISTING_DATE.matcher(aTagElement.nextSibling().toString());
+        if (!matcher.find()) return -1;
+        final SimpleDateFormat format = new SimpleDateFormat("dd-MMM-yyyy HH:mm", Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(matcher.group()).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method to resolve the given version JSONs into {@link MinecraftVersion} objects.
+     * <p>
+     * Each version's JSON and POM are resolved concurrently (at most {@link #inFlight} at once), the
+     * results are then sorted before being merged, so the {@link #versionMap} is identical to a serial discovery.
+     * <br>If any version fails (or times out), the discovery fails, rather than building another version of the
+     * same NMS Version in its place (and deleting the folder of the version which failed).
+     * </p>
+     *
+     * @param files of the versions (.json extension included).
+     * @throws IOException          if any version could not be resolved.
+     * @throws InterruptedException if the resolution is interrupted.
+     */
+    private void resolveVersions(@NotNull List<String> files) throws IOException, InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(inFlight, runnable -> {
+            final Thread thread = new Thread(runnable, "BuildTools-Discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Map<String, Future<MinecraftVersion>> resolving = new LinkedHashMap<>();
+        for (final String file : files) {
+            // Create a Version object for this file, resolving its JSON and POM off-thread.
+            resolving.put(file, executor.submit(() -> {
+                final MinecraftVersion minecraftVersion = new MinecraftVersion(file, versionsUrl, cache);
                 minecraftVersion.setNMS(resolvePom(minecraftVersion.getCraftBukkit()));
+                return minecraftVersion;
+            }));
+        }
+        final List<MinecraftVersion> minecraftVersions = new ArrayList<>();
+        final List<String> failed = new ArrayList<>();
+        final long deadline = System.currentTimeMillis() + VERSION_TIMEOUT * ((files.size() + inFlight - 1) / inFlight);
+        try {
+            for (Map.Entry<String, Future<MinecraftVersion>> entry : resolving.entrySet()) {
+                try {
+                    final long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    minecraftVersions.add(entry.getValue().get(remaining, TimeUnit.MILLISECONDS));
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    Main.error("Timed out whilst resolving " + entry.getKey() + ".");
+                    failed.add(entry.getKey().replace(".json", ""));
+                } catch (ExecutionException e) {
+                    Main.error("Failed to resolve " + entry.getKey() + " (" + e.getCause() + ").");
+                    failed.add(entry.getKey().replace(".json", ""));
+                }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!failed.isEmpty()) {
+            throw new IOException("Failed to resolve " + failed.size() + " Versions (" + String.join(", ", failed)
+                    + "), try again once the SpigotMC Hub is reachable or select the versions to build.");
         }
         // Sort the versions, conforming to the Version classes' comparable implementation.
         minecraftVersions.sort(null);
-        // Store each version in the VersionMap (NMS Versions)
-        minecraftVersions.forEach(minecraftVersion -> versionMap.putIfAbsent(minecraftVersion.getNMS(), minecraftVersion));
+        // The NMS Version is only known once resolved, drop those which were resolved for a neighbouring revision.
+        if (selector != null) minecraftVersions.removeIf(minecraftVersion -> !selector.accepts(minecraftVersion));
+        // Store each version in the VersionMap (NMS Versions, or every version if selected by range)
+        final boolean latestPerNms = selector == null || selector.isLatestPerNms();
+        minecraftVersions.forEach(minecraftVersion -> versionMap.putIfAbsent(
+                latestPerNms ? minecraftVersion.getNMS() : minecraftVersion.toString(), minecraftVersion));
     }
 
     /**
@@ -106,6 +343,7 @@ public class SpigotVersionCollector {
      * This method was originally created by <a href="https://hub.spigotmc.org/versions/">@MiniDigger</a> and
      * has been modified slightly to reflect the requirements for this project.
      * <br>View the original here: <a href="https://github.com/MiniDigger/spigot-resolver/blob/163d5d19484e22e4d25ae5bf55d3c0d44dc70a42/src/main/java/me/minidigger/spigotresolver/SpigotResolver.java#L183">here</a>.
+     * <br>As a commit hash is immutable, resolved NMS Versions are cached forever when a {@link #cache} is present.
      * </p>
      *
      * @param craftbukkitCommit to download and extract data from.
@@ -113,18 +351,26 @@ public class SpigotVersionCollector {
      * @throws Exception if the connection failed.
      */
     private String resolvePom(final String craftbukkitCommit) throws Exception {
-        final URL url = new URL("https://hub.spigotmc.org/stash/projects/SPIGOT" +
-                "/repos/craftbukkit/raw/pom.xml?at=" + craftbukkitCommit);
-        final BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream()));
-        String inputLine;
-        String nmsVersion = "ERROR";
-        while ((inputLine = in.readLine()) != null) {
-            if (inputLine.contains("minecraft_version")) {
-                nmsVersion = inputLine.split("[><]")[2];
-                break;
+        if (cache != null) {
+            final String cached = cache.getPom(craftbukkitCommit);
+            if (cached != null) return cached;
+        }
+        final URL url = new URL(pomUrl + craftbukkitCommit);
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(MinecraftVersion.TIMEOUT);
+        connection.setReadTimeout(MinecraftVersion.TIMEOUT);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            String inputLine;
+            String nmsVersion = "ERROR";
+            while ((inputLine = in.readLine()) != null) {
+                if (inputLine.contains("minecraft_version")) {
+                    nmsVersion = inputLine.split("[><]")[2];
+                    break;
+                }
             }
+            if (cache != null && !nmsVersion.equals("ERROR")) cache.putPom(craftbukkitCommit, nmsVersion);
+            return nmsVersion;
         }
-        return nmsVersion;
     }
 
 }
@@ -0,0 +1,144 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The StreamingZipExtractor class inflates the entries of a Zip as they arrive from a stream.
+ * <p>
+ *     Used by the {@link FileDownloader} to extract a Zip whilst it is being downloaded, the Zip is therefore never
+ *     read back from disk on a cold start.
+ *     <br>As the local headers of a Zip do not carry Unix permissions, entries within a 'bin' folder are made
+ *     executable (the same rule the {@link ZipExtractor} uses for Zips without permissions).
+ *     <br>Everything an extraction created is remembered, so it can be {@link #discard() discarded} if the Zip
+ *     fails verification once it has been downloaded.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 12:25
+ */
+public class StreamingZipExtractor {
+
+    /**
+     * The size of the buffer used to write each entry.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The folder the entries are extracted into.
+     */
+    private final Path root;
+
+    /**
+     * Notified with each file once it has been completely written, may be {@code null}.
+     */
+    private final Consumer<File> listener;
+
+    /**
+     * Every file and folder created by the last extraction, in the order they were created.
+     */
+    private final List<Path> created = new ArrayList<>();
+
+    /**
+     * Constructor to create a StreamingZipExtractor.
+     *
+     * @param destination to extract the entries into.
+     * @param listener    notified with each file once it has been completely written, or {@code null}.
+     * @throws IOException if the destination cannot be resolved.
+     */
+    public StreamingZipExtractor(@NotNull File destination, @Nullable Consumer<File> listener) throws IOException {
+        this.root = destination.getCanonicalFile().toPath();
+        this.listener = listener;
+    }
+
+    /**
+     * Method to extract every entry from the given stream.
+     * <p>
+     *     The stream is not closed and is only read up to the central directory of the Zip, the caller is
+     *     responsible for consuming the remainder.
+     * </p>
+     *
+     * @param input to read the Zip from.
+     * @return the amount of entries extracted.
+     * @throws IOException if the Zip is malformed or an entry cannot be written.
+     */
+    public int extract(@NotNull InputStream input) throws IOException {
+        final ZipInputStream zip = new ZipInputStream(new FilterInputStream(input) {
+            @Override
+            public void close() {
+                // The caller owns the stream.
+            }
+        });
+        created.clear();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final long start = System.nanoTime();
+        int entries = 0;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            final Path target = root.resolve(entry.getName()).normalize();
+            if (!target.startsWith(root)) throw new IOException("Illegal entry outside of the destination: " + entry.getName());
+            entries++;
+            if (entry.isDirectory()) {
+                createDirectories(target);
+                continue;
+            }
+            createDirectories(target.getParent());
+            if (!Files.exists(target)) created.add(target);
+            try (OutputStream out = new FileOutputStream(target.toFile())) {
+                int numRead;
+                while ((numRead = zip.read(buffer)) != -1) out.write(buffer, 0, numRead);
+            }
+            final File file = target.toFile();
+            if (entry.getName().contains("/bin/")) ZipExtractor.markExecutable(file);
+            if (listener != null) listener.accept(file);
+        }
+        Metrics.extracted(entries, System.nanoTime() - start); // Includes waiting for the download.
+        return entries;
+    }
+
+    /**
+     * Method to delete every file and folder created by the last extraction.
+     * <p>
+     *     Files which existed before the extraction have been overwritten, they are left for the next extraction.
+     * </p>
+     *
+     * @return the amount of files and folders deleted.
+     */
+    public int discard() {
+        int deleted = 0;
+        for (int i = created.size() - 1; i >= 0; i--) {
+            final Path path = created.get(i);
+            try {
+                if (Files.deleteIfExists(path)) deleted++;
+            } catch (IOException e) { // A folder still holding files which existed before the extraction.
+                Main.debug(() -> "Failed to discard '" + root.relativize(path) + "': " + e.getMessage());
+            }
+        }
+        created.clear();
+        return deleted;
+    }
+
+    /**
+     * Method to create the given folder and its missing parents, remembering each folder which was created.
+     *
+     * @param folder to create.
+     * @throws IOException if a folder cannot be created.
+     */
+    private void createDirectories(@NotNull Path folder) throws IOException {
+        if (Files.isDirectory(folder)) return;
+        if (!folder.equals(root) && folder.getParent() != null) createDirectories(folder.getParent());
+        Files.createDirectories(folder);
+        created.add(folder);
+    }
+
+}
@@ -0,0 +1,139 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Trash class deletes files and folders in the background, so nothing waits for a large tree to be deleted.
+ * <p>
+ *     Discarding a file or folder atomically renames it into the trash (an O(1) operation on the same file system),
+ *     a pool of low-priority daemon threads then deletes the trees within the trash in parallel.
+ *     <br>Trees left in the trash by an earlier run (which exited before they were deleted) are deleted as soon
+ *     as the Trash is created.
+ *     <br>If a file cannot be renamed into the trash (for example, it is on another file system), it is deleted
+ *     immediately instead.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 20:30
+ */
+public class Trash {
+
+    /**
+     * The amount of trees deleted at once.
+     */
+    private static final int REAPERS = 2;
+
+    /**
+     * The folder trees are renamed into.
+     */
+    private final File root;
+
+    /**
+     * The pool deleting the trees within the trash.
+     */
+    private final ExecutorService reapers = Executors.newFixedThreadPool(REAPERS, runnable -> {
+        final Thread thread = new Thread(runnable, "BuildTools-Reaper");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Used to give each discarded tree a unique name within the trash.
+     */
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * Constructor to create a Trash, deleting any trees left within it by an earlier run.
+     *
+     * @param root folder of the trash, on the same file system as the files which are discarded.
+     */
+    public Trash(@NotNull File root) {
+        this.root = root;
+        if (!root.exists() && !root.mkdirs() && !root.isDirectory()) {
+            Main.error("Failed to create the trash at '" + root.getPath() + "', files will be deleted immediately.");
+            return;
+        }
+        final File[] leftovers = root.listFiles();
+        if (leftovers == null || leftovers.length == 0) return;
+        Main.log("Deleting " + leftovers.length + " trees left in the trash by an earlier run, in the background.");
+        for (File leftover : leftovers) reap(leftover.toPath());
+    }
+
+    /**
+     * Method to discard the given file or folder, it is renamed into the trash and deleted in the background.
+     *
+     * @param file to discard.
+     * @throws IOException if the file cannot be renamed into the trash and cannot be deleted immediately.
+     */
+    public void discard(@NotNull File file) throws IOException {
+        if (!file.exists()) return;
+        final Path trashed = root.toPath().resolve(file.getName() + "-" + System.currentTimeMillis() + "-"
+                + counter.incrementAndGet());
+        try {
+            Files.move(file.toPath(), trashed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UnsupportedOperationException e) {
+            Main.debug(() -> "Failed to move '" + file.getPath() + "' into the trash (" + e.getMessage()
+                    + "), deleting it immediately.");
+            delete(file.toPath());
+            return;
+        }
+        reap(trashed);
+    }
+
+    /**
+     * Method to delete the given tree within the trash in the background.
+     *
+     * @param tree to delete.
+     */
+    private void reap(@NotNull Path tree) {
+        reapers.execute(() -> {
+            final long start = System.currentTimeMillis();
+            try {
+                delete(tree);
+                Main.debug(() -> "Deleted '" + tree.getFileName() + "' from the trash in "
+                        + (System.currentTimeMillis() - start) + "ms.");
+            } catch (IOException e) {
+                Main.error("Failed to delete '" + tree + "' from the trash, it will be retried on the next run: "
+                        + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Method to delete the given file or folder, deleting the contents of a folder first.
+     * <p>
+     *     Symbolic links are deleted rather than followed.
+     * </p>
+     *
+     * @param tree to delete.
+     * @throws IOException if anything within the tree cannot be deleted.
+     */
+    private static void delete(@NotNull Path tree) throws IOException {
+        if (!Files.exists(tree, LinkOption.NOFOLLOW_LINKS)) return;
+        Files.walkFileTree(tree, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) throw exc;
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,394 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The WorkCache class keeps the contents of each version's '/work/' folder (vanilla jars, mappings and decompiled
+ * sources) across runs, storing content shared by several versions once.
+ * <p>
+ *     Files are stored once in a {@link ContentStore} under their SHA-256 digest, each version has a manifest
+ *     mapping the relative path of every file within its '/work/' folder to the digest, size and modification
+ *     time of the stored file.
+ *     <br>Before a build, the missing files recorded for that version are seeded into its '/work/' folder, after a
+ *     successful build, new or changed files are harvested back into the store.
+ *     <br>Files are copied (not linked) in both directions, BuildTools may rewrite a file in place, which would
+ *     otherwise change the store and every other workspace beneath a running build.
+ *     <br>A stored file whose size or modification time no longer matches its manifest is hashed again, and dropped
+ *     from the store if it no longer matches its digest, stored files no manifest refers to are
+ *     {@link #collect() collected} at the end of each run.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 14:20
+ */
+public class WorkCache {
+
+    /**
+     * The store holding each file under its digest.
+     */
+    private final ContentStore objects;
+
+    /**
+     * The folder the per-version manifests are stored within.
+     */
+    private final File manifests;
+
+    /**
+     * Constructor to create a WorkCache.
+     *
+     * @param root folder to store the cache within.
+     */
+    public WorkCache(@NotNull File root) {
+        this.objects = new ContentStore(new File(root, "objects"));
+        this.manifests = new File(root, "manifests");
+        if (!manifests.exists() && !manifests.mkdirs() && !manifests.isDirectory()) {
+            Main.error("Failed to create the work cache at '" + root.getPath() + "'.");
+        }
+    }
+
+    /**
+     * Method to seed the files recorded for the given version into its '/work/' folder.
+     * <p>
+     *     Files which already exist are left alone, stored files which fail verification are not seeded.
+     * </p>
+     *
+     * @param work    folder of the version.
+     * @param version to seed.
+     * @return the amount of files seeded.
+     */
+    public int seed(@NotNull File work, @NotNull String version) {
+        final Properties manifest = readManifest(version);
+        int seeded = 0;
+        long bytes = 0;
+        for (String path : manifest.stringPropertyNames()) {
+            final Entry entry = Entry.parse(manifest.getProperty(path));
+            final File target = new File(work, path);
+            if (entry == null || target.exists()) continue;
+            final File stored = verify(entry);
+            if (stored == null) continue;
+            try {
+                final File parent = target.getParentFile();
+                if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) continue;
+                copy(stored, target);
+                seeded++;
+                bytes += entry.size;
+            } catch (IOException e) {
+                Main.debug(() -> "Failed to seed '" + path + "' for " + version + ": " + e.getMessage());
+            }
+        }
+        if (seeded != 0) {
+            Main.log("Seeded " + seeded + " files (" + (bytes / (1024 * 1024)) + " MB) into /work/ for "
+                    + version + " from the work cache.");
+        }
+        return seeded;
+    }
+
+    /**
+     * Method to store every file within the given '/work/' folder and record them for the given version.
+     * <p>
+     *     Files which are unchanged since they were last recorded are not hashed again.
+     * </p>
+     *
+     * @param work    folder of the version.
+     * @param version which was built.
+     * @return the amount of files which were new or changed.
+     */
+    public int harvest(@NotNull File work, @NotNull String version) {
+        if (!work.isDirectory()) return 0;
+        final Properties previous = readManifest(version);
+        final Properties manifest = new Properties();
+        int harvested = 0;
+        for (File file : listFiles(work)) {
+            final String path = relativise(work, file);
+            final Entry known = Entry.parse(previous.getProperty(path, ""));
+            try {
+                if (known != null && known.matches(file)) {
+                    manifest.setProperty(path, known.toString());
+                    continue;
+                }
+                final String digest = FileDownloader.sha256(file);
+                final File stored = objects.store(file, digest, "");
+                // Match the stored file, so the unchanged file isn't hashed again by the next harvest.
+                Files.setLastModifiedTime(file.toPath(), Files.getLastModifiedTime(stored.toPath()));
+                manifest.setProperty(path, new Entry(digest, stored.length(), stored.lastModified()).toString());
+                harvested++;
+            } catch (IOException e) {
+                Main.debug(() -> "Failed to harvest '" + path + "' for " + version + ": " + e.getMessage());
+            }
+        }
+        try {
+            writeManifest(version, manifest);
+        } catch (IOException e) {
+            Main.error("Failed to store the work cache manifest for " + version + ": " + e.getMessage());
+        }
+        if (harvested != 0) Main.log("Harvested " + harvested + " new files from /work/ for " + version + ".");
+        return harvested;
+    }
+
+    /**
+     * Method to forget the files recorded for the given version, once its folder has been deleted.
+     *
+     * @param version to forget.
+     */
+    public void forget(@NotNull String version) {
+        try {
+            Files.deleteIfExists(getManifest(version).toPath());
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to delete the work cache manifest for " + version + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to delete every stored file which no manifest refers to.
+     * <p>
+     *     This must not run alongside {@link #harvest(File, String)}, as a file which has just been stored may not
+     *     have been recorded yet.
+     * </p>
+     *
+     * @return the amount of files deleted.
+     */
+    public int collect() {
+        final Set<String> referenced = new HashSet<>();
+        final File[] files = manifests.listFiles((dir, name) -> name.endsWith(".properties"));
+        if (files == null) return 0;
+        for (File file : files) {
+            final Properties manifest = readManifest(file.getName().substring(0, file.getName().length() - 11));
+            for (String path : manifest.stringPropertyNames()) {
+                final Entry entry = Entry.parse(manifest.getProperty(path));
+                if (entry != null) referenced.add(entry.digest);
+            }
+        }
+        final int deleted = objects.retain(referenced);
+        if (deleted != 0) Main.log("Removed " + deleted + " unreferenced files from the work cache.");
+        return deleted;
+    }
+
+    /**
+     * Method to delete every file within the given '/work/' folder which cannot be verified.
+     * <p>
+     *     A file is verified if it is recorded for the version and still matches the recorded digest, unrecorded
+     *     files are deleted as they cannot be verified.
+     * </p>
+     *
+     * @param work    folder of the version.
+     * @param version of the folder.
+     * @return the amount of files deleted.
+     * @throws IOException if a file fails verification and cannot be deleted.
+     */
+    public int prune(@NotNull File work, @NotNull String version) throws IOException {
+        return prune(work, version, null);
+    }
+
+    /**
+     * Method to delete every file within the given '/work/' folder which cannot be verified, discarding each file
+     * into the given trash (so it is deleted in the background).
+     *
+     * @param work    folder of the version.
+     * @param version of the folder.
+     * @param trash   to discard the files into, or {@code null} to delete them immediately.
+     * @return the amount of files deleted.
+     * @throws IOException if a file fails verification and cannot be deleted.
+     */
+    public int prune(@NotNull File work, @NotNull String version, @Nullable Trash trash) throws IOException {
+        if (!work.isDirectory()) return 0;
+        final Properties manifest = readManifest(version);
+        int deleted = 0;
+        for (File file : listFiles(work)) {
+            final Entry entry = Entry.parse(manifest.getProperty(relativise(work, file), ""));
+            if (entry != null && (entry.matches(file) || entry.digest.equals(FileDownloader.sha256(file)))) continue;
+            if (trash != null) trash.discard(file);
+            else Files.delete(file.toPath());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Method to verify the stored file of the given entry.
+     * <p>
+     *     The stored file is trusted if its size and modification time match the entry, otherwise it is hashed
+     *     and deleted if it no longer matches its digest.
+     * </p>
+     *
+     * @param entry to verify.
+     * @return the stored {@link File} or {@code null} if it is missing or corrupt.
+     */
+    @Nullable
+    private File verify(@NotNull Entry entry) {
+        final File stored = objects.getFile(entry.digest, "");
+        if (!stored.exists()) return null;
+        if (entry.matches(stored)) return stored;
+        try {
+            if (entry.digest.equals(FileDownloader.sha256(stored))) return stored;
+            Main.debug(() -> "Dropping " + entry.digest + " from the work cache as it no longer matches its digest.");
+            Files.deleteIfExists(stored.toPath());
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to verify " + entry.digest + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Method to copy the stored file into the workspace, keeping its modification time so it matches its manifest.
+     * <p>
+     *     The copy is written under a temporary name and moved into place, so BuildTools never finds a partial file.
+     * </p>
+     *
+     * @param stored to copy.
+     * @param target to copy to.
+     * @throws IOException if the file cannot be copied.
+     */
+    private static void copy(@NotNull File stored, @NotNull File target) throws IOException {
+        final Path temp = Files.createTempFile(target.getParentFile().toPath(), target.getName(), ".tmp");
+        try {
+            Files.copy(stored.toPath(), temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Method to list every regular file within the given folder.
+     *
+     * @param folder to list.
+     * @return {@link List} of files, empty if the folder cannot be read.
+     */
+    @NotNull
+    private List<File> listFiles(@NotNull File folder) {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            return paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            Main.debug(() -> "Failed to list '" + folder.getPath() + "': " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Method to obtain the path of the file relative to the '/work/' folder, using '/' as the separator.
+     *
+     * @param work folder the file is within.
+     * @param file to relativise.
+     * @return relative path of the file.
+     */
+    @NotNull
+    private String relativise(@NotNull File work, @NotNull File file) {
+        return work.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Method to obtain the manifest file of the given version.
+     *
+     * @param version to obtain the manifest for.
+     * @return {@link File} which may not exist.
+     */
+    @NotNull
+    private File getManifest(@NotNull String version) {
+        return new File(manifests, version + ".properties");
+    }
+
+    /**
+     * Method to read the manifest of the given version.
+     *
+     * @param version to read the manifest of.
+     * @return {@link Properties}, empty if no manifest has been stored.
+     */
+    @NotNull
+    private Properties readManifest(@NotNull String version) {
+        final Properties manifest = new Properties();
+        final File file = getManifest(version);
+        if (!file.exists()) return manifest;
+        try (InputStream in = new FileInputStream(file)) {
+            manifest.load(in);
+        } catch (IOException e) {
+            Main.debug(() -> "Failed to read the work cache manifest for " + version + ": " + e.getMessage());
+        }
+        return manifest;
+    }
+
+    /**
+     * Method to write the manifest of the given version atomically.
+     *
+     * @param version  to write the manifest for.
+     * @param manifest to write.
+     * @throws IOException if the manifest cannot be written.
+     */
+    private void writeManifest(@NotNull String version, @NotNull Properties manifest) throws IOException {
+        final File file = getManifest(version);
+        final Path temp = Files.createTempFile(manifests.toPath(), file.getName(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, "BuildTools - Master work cache manifest for " + version);
+        }
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A file recorded within a manifest.
+     */
+    private static class Entry {
+
+        /**
+         * The SHA-256 digest of the file.
+         */
+        private final String digest;
+
+        /**
+         * The size and modification time of the stored file when it was recorded.
+         */
+        private final long size, modified;
+
+        private Entry(String digest, long size, long modified) {
+            this.digest = digest;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        /**
+         * Method to parse an entry in the form 'digest:size:modified'.
+         *
+         * @param value to parse.
+         * @return {@link Entry} or {@code null} if the value is malformed.
+         */
+        @Nullable
+        private static Entry parse(@NotNull String value) {
+            final String[] parts = value.split(":");
+            if (parts.length != 3) return null;
+            try {
+                return new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Method to check if the given file is unchanged since this entry was recorded.
+         *
+         * @param file to check.
+         * @return {@code true} if the size and modification time match.
+         */
+        private boolean matches(@NotNull File file) {
+            return file.length() == size && file.lastModified() == modified;
+        }
+
+        @Override
+        public String toString() {
+            return digest + ":" + size + ":" + modified;
+        }
+
+    }
+
+}
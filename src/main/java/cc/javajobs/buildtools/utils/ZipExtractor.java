@@ -0,0 +1,244 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.Main;
+import net.lingala.zip4j.ZipFile;
+import net.lingala.zip4j.model.FileHeader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ZipExtractor class extracts the entries of a Zip file across a pool of workers.
+ * <p>
+ *     The central directory is read once (through <em>Zip4J</em>), each entry is then inflated by a worker into an
+ *     output file which is preallocated to the entry's size.
+ *     <br>Unix permissions stored in the Zip are restored, entries within a 'bin' folder are made executable when
+ *     the Zip was created on a system without them (for example the Windows JDKs).
+ *     <br>Once every entry has been extracted, a marker is written (atomically) next to the Zip, a folder without
+ *     a matching marker is therefore never treated as extracted.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 11:41
+ */
+public class ZipExtractor {
+
+    /**
+     * The size of the buffer used to write each entry.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The 'version made by' host value for Unix.
+     */
+    private static final int HOST_UNIX = 3;
+
+    /**
+     * The amount of workers extracting entries.
+     */
+    private final int workers;
+
+    /**
+     * Constructor to create a ZipExtractor using one worker per available processor.
+     */
+    public ZipExtractor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor to create a ZipExtractor.
+     *
+     * @param workers the amount of workers extracting entries.
+     */
+    public ZipExtractor(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Method to check if the given Zip has been completely extracted.
+     *
+     * @param zip to check.
+     * @return {@code true} if the marker exists and matches the Zip.
+     */
+    public static boolean isExtracted(@NotNull File zip) {
+        final File marker = getMarker(zip);
+        if (!marker.exists()) return false;
+        try {
+            return new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8).trim().equals(describe(zip));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method to extract the given Zip into the destination.
+     *
+     * @param zip         to extract.
+     * @param destination to extract into.
+     * @throws IOException if any entry fails to extract.
+     */
+    public void extract(@NotNull File zip, @NotNull File destination) throws IOException {
+        clearMarker(zip);
+        final long start = System.nanoTime();
+        final ZipFile zipFile = new ZipFile(zip);
+        final List<FileHeader> headers = zipFile.getFileHeaders();
+        final Path root = destination.getCanonicalFile().toPath();
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            final Thread thread = new Thread(runnable, "BuildTools-Extract");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (FileHeader header : headers) {
+                final Path target = root.resolve(header.getFileName()).normalize();
+                if (!target.startsWith(root)) throw new IOException("Illegal entry outside of the destination: " + header.getFileName());
+                if (header.isDirectory()) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    extractEntry(zipFile, header, target);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Extraction of " + zip.getName() + " was interrupted");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            zipFile.close();
+        }
+        markExtracted(zip);
+        final long elapsed = System.nanoTime() - start;
+        Metrics.extracted(headers.size(), elapsed);
+        Main.debug(() -> "Extracted " + headers.size() + " entries from " + zip.getName() + " in "
+                + TimeUnit.NANOSECONDS.toSeconds(elapsed) + " seconds.");
+    }
+
+    /**
+     * Method to extract a single entry into the (preallocated) target file.
+     *
+     * @param zipFile to read the entry from.
+     * @param header  of the entry.
+     * @param target  to write the entry to.
+     * @throws IOException if the entry fails to extract.
+     */
+    private void extractEntry(@NotNull ZipFile zipFile, @NotNull FileHeader header, @NotNull Path target)
+            throws IOException {
+        Files.createDirectories(target.getParent());
+        final InputStream input;
+        synchronized (zipFile) { // Zip4J tracks open streams in an unsynchronised list.
+            input = zipFile.getInputStream(header);
+        }
+        try (InputStream in = input; RandomAccessFile out = new RandomAccessFile(target.toFile(), "rw")) {
+            if (header.getUncompressedSize() > 0) out.setLength(header.getUncompressedSize());
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            int numRead;
+            while ((numRead = in.read(buffer)) != -1) {
+                out.write(buffer, 0, numRead);
+                written += numRead;
+            }
+            if (out.length() != written) out.setLength(written);
+        }
+        applyPermissions(header, target.toFile());
+    }
+
+    /**
+     * Method to restore the executable bit of the extracted entry.
+     *
+     * @param header of the entry.
+     * @param file   which was extracted.
+     */
+    private void applyPermissions(@NotNull FileHeader header, @NotNull File file) {
+        final byte[] attributes = header.getExternalFileAttributes();
+        final boolean unix = ((header.getVersionMadeBy() >> 8) & 0xFF) == HOST_UNIX;
+        if (unix && attributes != null && attributes.length == 4) {
+            final int mode = ((attributes[3] & 0xFF) << 8) | (attributes[2] & 0xFF);
+            if ((mode & 0111) != 0 && !file.setExecutable(true, (mode & 0011) == 0)) {
+                Main.debug(() -> "Failed to mark " + file.getName() + " as executable.");
+            }
+        } else if (header.getFileName().contains("/bin/")) {
+            markExecutable(file);
+        }
+    }
+
+    /**
+     * Method to make the given file executable for everyone.
+     *
+     * @param file to make executable.
+     */
+    static void markExecutable(@NotNull File file) {
+        if (!file.setExecutable(true, false)) Main.debug(() -> "Failed to mark " + file.getName() + " as executable.");
+    }
+
+    /**
+     * Method to mark the given Zip as completely extracted.
+     * <p>
+     *     The marker is written to a temporary file which is then moved into place, it is therefore either absent
+     *     or complete.
+     * </p>
+     *
+     * @param zip which was extracted.
+     * @throws IOException if the marker cannot be written.
+     */
+    public static void markExtracted(@NotNull File zip) throws IOException {
+        final File marker = getMarker(zip);
+        final Path temp = Files.createTempFile(marker.getParentFile().toPath(), marker.getName(), ".tmp");
+        Files.write(temp, describe(zip).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, marker.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to remove the marker of the given Zip, before its contents are (re-)written.
+     *
+     * @param zip to remove the marker for.
+     * @throws IOException if the marker exists and cannot be deleted.
+     */
+    public static void clearMarker(@NotNull File zip) throws IOException {
+        final File marker = getMarker(zip);
+        if (marker.exists() && !marker.delete()) throw new IOException("Failed to delete the stale marker " + marker);
+    }
+
+    /**
+     * Method to obtain the marker of the given Zip.
+     *
+     * @param zip to obtain the marker for.
+     * @return {@link File} marking the Zip as extracted.
+     */
+    @NotNull
+    private static File getMarker(@NotNull File zip) {
+        return new File(zip.getAbsoluteFile().getParentFile(), zip.getName() + ".extracted");
+    }
+
+    /**
+     * Method to describe the Zip, so a replaced Zip invalidates its marker.
+     *
+     * @param zip to describe.
+     * @return the size and modification time of the Zip.
+     */
+    @NotNull
+    private static String describe(@NotNull File zip) {
+        return zip.length() + ":" + zip.lastModified();
+    }
+
+}
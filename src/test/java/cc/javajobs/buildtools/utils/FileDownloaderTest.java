@@ -0,0 +1,377 @@
+package cc.javajobs.buildtools.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link FileDownloader} against a local, range-capable, stub server.
+ * <p>
+ *     Each connection to the stub is limited to {@link #CONNECTION_RATE}, standing in for a remote server, so the
+ *     throughput of a single stream and a segmented download can be compared.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 06:42
+ */
+public class FileDownloaderTest {
+
+    /**
+     * The size of the file served by the stub, large enough for four segments.
+     */
+    private static final int SIZE = 32 * 1024 * 1024;
+
+    /**
+     * The maximum rate (in bytes per second) of a single connection to the stub.
+     */
+    private static final long CONNECTION_RATE = 32L * 1024 * 1024;
+
+    /**
+     * The size of each write made by the stub.
+     */
+    private static final int CHUNK = 256 * 1024;
+
+    /**
+     * The ETag of the file served by the stub.
+     */
+    private static final String ETAG = "\"stub-etag\"";
+
+    /**
+     * The file served by the stub.
+     */
+    private static byte[] data;
+
+    /**
+     * The SHA-256 digest (hex) of the file served by the stub.
+     */
+    private static String digest;
+
+    /**
+     * The 'Range' header of every request, {@code "-"} for requests without one.
+     */
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    /**
+     * The amount of requests without a 'Range' header.
+     */
+    private final AtomicInteger fullRequests = new AtomicInteger();
+
+    /**
+     * The amount of requests without a 'Range' header which are answered, the rest fail.
+     */
+    private volatile int allowedFullRequests = Integer.MAX_VALUE;
+
+    /**
+     * The offset of a range request which fails, {@code -1} if none fail.
+     */
+    private volatile long failingRange = -1;
+
+    /**
+     * The amount of bytes after which the first request is cut off, {@code -1} to never cut it off.
+     */
+    private volatile int cutOff = -1;
+
+    /**
+     * The Zip served by the stub at '/archive.zip'.
+     */
+    private volatile byte[] archive;
+
+    /**
+     * The folder (relative to the working directory) the downloads are written to.
+     */
+    private String folder;
+
+    /**
+     * The stub server.
+     */
+    private HttpServer server;
+
+    /**
+     * The executor serving requests.
+     */
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        if (data == null) {
+            data = new byte[SIZE];
+            new Random(42).nextBytes(data);
+            digest = sha256(data);
+        }
+        folder = "target/test-downloads/" + System.nanoTime();
+        executor = Executors.newCachedThreadPool();
+        startServer(0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void segmentedDownloadIsAssembledAndVerified() throws Exception {
+        assertTrue(new FileDownloader(4).downloadFile(url(), "file.bin", folder, digest));
+        assertArrayEquals(data, Files.readAllBytes(file().toPath()));
+        assertEquals(4, ranges.stream().filter(range -> !range.equals("-")).count());
+        assertTrue(FileDownloader.isVerified(file()));
+    }
+
+    @Test
+    public void interruptedStreamIsResumed() throws Exception {
+        cutOff = SIZE / 3;
+        assertFalse(new FileDownloader().downloadFile(url(), "file.bin", folder, digest));
+        final long partial = file().length();
+        assertTrue("Expected a partial file, found " + partial + " bytes", partial > 0 && partial < SIZE);
+        startServer(server.getAddress().getPort());
+        ranges.clear();
+        assertTrue(new FileDownloader().downloadFile(url(), "file.bin", folder, digest));
+        assertEquals("bytes=" + partial + "-", ranges.get(0));
+        assertArrayEquals(data, Files.readAllBytes(file().toPath()));
+    }
+
+    @Test
+    public void interruptedSegmentsAreResumed() throws Exception {
+        failingRange = SIZE / 4; // The second of four segments.
+        allowedFullRequests = 1; // The first response provides the headers, the single stream fallback fails.
+        assertFalse(new FileDownloader(4).downloadFile(url(), "file.bin", folder, digest));
+        failingRange = -1;
+        ranges.clear();
+        assertTrue(new FileDownloader(4).downloadFile(url(), "file.bin", folder, digest));
+        assertEquals(1, ranges.size());
+        assertEquals("bytes=" + (SIZE / 4) + "-" + (SIZE / 2 - 1), ranges.get(0));
+        assertArrayEquals(data, Files.readAllBytes(file().toPath()));
+    }
+
+    @Test
+    public void segmentedDownloadOutpacesSingleStream() throws Exception {
+        final long singleStart = System.nanoTime();
+        assertTrue(new FileDownloader().downloadFile(url(), "single.bin", folder, digest));
+        final long single = System.nanoTime() - singleStart;
+        final long segmentedStart = System.nanoTime();
+        assertTrue(new FileDownloader(4).downloadFile(url(), "segmented.bin", folder, digest));
+        final long segmented = System.nanoTime() - segmentedStart;
+        assertTrue("Segmented download took " + segmented / 1_000_000 + "ms, single stream took "
+                + single / 1_000_000 + "ms", segmented * 2 < single);
+    }
+
+    @Test
+    public void unstreamableZipIsStillDownloaded() throws Exception {
+        // ZipInputStream refuses a stored entry followed by a data descriptor, a Zip file reads it fine.
+        archive = storedZip("jdk/release", "JAVA_VERSION=17", "jdk/bin/java", "#!/bin/sh");
+        final File destination = new File(folder);
+        final FileDownloader downloader = new FileDownloader(new StreamingZipExtractor(destination, null));
+        assertTrue(downloader.downloadFile(archiveUrl(), "archive.zip", folder, sha256(archive)));
+        assertFalse(downloader.isStreamed());
+        final File zip = new File(destination, "archive.zip");
+        assertArrayEquals(archive, Files.readAllBytes(zip.toPath()));
+        assertFalse(ZipExtractor.isExtracted(zip));
+        new ZipExtractor().extract(zip, destination);
+        assertEquals("#!/bin/sh", new String(Files.readAllBytes(new File(destination, "jdk/bin/java").toPath()),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void unverifiedExtractionIsDiscarded() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("jdk/bin/java"));
+            zip.write("#!/bin/sh".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        archive = bytes.toByteArray();
+        final File destination = new File(folder);
+        assertTrue(destination.mkdirs());
+        final File existing = new File(destination, "existing.txt");
+        Files.write(existing.toPath(), new byte[]{1});
+        final FileDownloader downloader = new FileDownloader(new StreamingZipExtractor(destination, null));
+        assertFalse(downloader.downloadFile(archiveUrl(), "archive.zip", folder, digest)); // The wrong digest.
+        assertFalse(new File(destination, "jdk").exists());
+        assertFalse(new File(destination, "archive.zip").exists());
+        assertTrue(existing.exists());
+    }
+
+    /**
+     * Method to start the stub on the given port.
+     *
+     * @param port to listen on, {@code 0} for any port.
+     * @throws IOException if the port cannot be bound.
+     */
+    private void startServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/file.bin", this::handle);
+        server.createContext("/archive.zip", exchange -> {
+            exchange.sendResponseHeaders(200, archive.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(archive);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Method to obtain the location of the file served by the stub.
+     *
+     * @return the url of the file.
+     */
+    @NotNull
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/file.bin";
+    }
+
+    /**
+     * Method to obtain the location of the Zip served by the stub.
+     *
+     * @return the url of the Zip.
+     */
+    @NotNull
+    private String archiveUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/archive.zip";
+    }
+
+    /**
+     * Method to write a Zip of two stored entries, the second followed by a data descriptor.
+     *
+     * @param firstName     of the first entry.
+     * @param firstContent  of the first entry.
+     * @param secondName    of the second entry.
+     * @param secondContent of the second entry.
+     * @return the Zip.
+     */
+    @NotNull
+    private static byte[] storedZip(@NotNull String firstName, @NotNull String firstContent,
+                                    @NotNull String secondName, @NotNull String secondContent) {
+        final ByteBuffer zip = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer central = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+        final String[][] entries = {{firstName, firstContent}, {secondName, secondContent}};
+        for (int i = 0; i < entries.length; i++) {
+            final byte[] name = entries[i][0].getBytes(StandardCharsets.UTF_8);
+            final byte[] content = entries[i][1].getBytes(StandardCharsets.UTF_8);
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            final boolean descriptor = i == 1;
+            final int offset = zip.position();
+            zip.putInt(0x04034b50).putShort((short) 20).putShort((short) (descriptor ? 8 : 0)).putShort((short) 0)
+                    .putInt(0).putInt(descriptor ? 0 : (int) crc.getValue())
+                    .putInt(descriptor ? 0 : content.length).putInt(descriptor ? 0 : content.length)
+                    .putShort((short) name.length).putShort((short) 0).put(name).put(content);
+            if (descriptor) zip.putInt(0x08074b50).putInt((int) crc.getValue()).putInt(content.length).putInt(content.length);
+            central.putInt(0x02014b50).putShort((short) 20).putShort((short) 20)
+                    .putShort((short) (descriptor ? 8 : 0)).putShort((short) 0).putInt(0).putInt((int) crc.getValue())
+                    .putInt(content.length).putInt(content.length).putShort((short) name.length).putShort((short) 0)
+                    .putShort((short) 0).putShort((short) 0).putShort((short) 0).putInt(0).putInt(offset).put(name);
+        }
+        final int centralOffset = zip.position();
+        zip.put(central.array(), 0, central.position());
+        zip.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) entries.length)
+                .putShort((short) entries.length).putInt(central.position()).putInt(centralOffset).putShort((short) 0);
+        return Arrays.copyOf(zip.array(), zip.position());
+    }
+
+    /**
+     * Method to compute the SHA-256 digest (hex) of the given bytes.
+     *
+     * @param bytes to digest.
+     * @return the digest.
+     * @throws NoSuchAlgorithmException if SHA-256 isn't supported.
+     */
+    @NotNull
+    private static String sha256(@NotNull byte[] bytes) throws NoSuchAlgorithmException {
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    /**
+     * Method to obtain the downloaded file.
+     *
+     * @return {@link File} the file is downloaded to.
+     */
+    @NotNull
+    private File file() {
+        return new File(new File("./", folder), "file.bin");
+    }
+
+    /**
+     * Method to answer a request to the stub, honouring a single 'Range' if one is requested.
+     *
+     * @param exchange to answer.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(range == null ? "-" : range);
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        int start = 0, end = SIZE - 1;
+        if (range != null) {
+            final String[] bounds = range.replace("bytes=", "").split("-", -1);
+            start = Integer.parseInt(bounds[0]);
+            if (!bounds[1].isEmpty()) end = Math.min(end, Integer.parseInt(bounds[1]));
+        }
+        if ((range == null && fullRequests.incrementAndGet() > allowedFullRequests) || start == failingRange) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        if (range != null) {
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + SIZE);
+        }
+        exchange.sendResponseHeaders(range == null ? 200 : 206, end - start + 1);
+        final int limit = cutOff;
+        cutOff = -1;
+        final long begun = System.nanoTime();
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int position = start, sent = 0; position <= end; position += CHUNK) {
+                final int length = Math.min(CHUNK, end - position + 1);
+                if (limit != -1 && sent + length > limit) {
+                    // Cut the response off by dropping every connection, as a failing network would.
+                    out.flush();
+                    Thread.sleep(250); // Let the client receive what was sent.
+                    final HttpServer stopping = server;
+                    new Thread(() -> stopping.stop(0)).start();
+                    return;
+                }
+                out.write(data, position, length);
+                sent += length;
+                // Throttle the connection to the CONNECTION_RATE.
+                final long due = begun + sent * 1_000_000_000L / CONNECTION_RATE;
+                final long wait = due - System.nanoTime();
+                if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // The client disconnected (for example, once it has read the headers of a segmented download).
+        }
+    }
+
+}
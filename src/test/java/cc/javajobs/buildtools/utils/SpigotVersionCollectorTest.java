@@ -0,0 +1,196 @@
+package cc.javajobs.buildtools.utils;
+
+import cc.javajobs.buildtools.obj.MinecraftVersion;
+import cc.javajobs.buildtools.obj.VersionSelector;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SpigotVersionCollector} against a local stub of the SpigotMC Hub.
+ * <p>
+ *     Every response of the stub is delayed, standing in for the round-trip to the real Hub, so the wall-clock time
+ *     of a serial and a concurrent discovery can be compared.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 06:37
+ */
+public class SpigotVersionCollectorTest {
+
+    /**
+     * The time (in milliseconds) the stub takes to answer each request.
+     */
+    private static final long DELAY = 150;
+
+    /**
+     * The versions listed by the stub, mapped to their NMS Versions.
+     */
+    private static final Map<String, String> VERSIONS = new LinkedHashMap<>();
+
+    static {
+        for (int minor = 0; minor <= 2; minor++) VERSIONS.put(minor == 0 ? "1.19" : "1.19." + minor, "1_19_R1");
+        VERSIONS.put("1.19.3", "1_19_R2");
+        for (int minor = 0; minor <= 2; minor++) VERSIONS.put(minor == 0 ? "1.18" : "1.18." + minor, "1_18_R" + (minor == 2 ? 2 : 1));
+        for (int minor = 0; minor <= 4; minor++) VERSIONS.put(minor == 0 ? "1.17" : "1.17." + minor, "1_17_R1");
+    }
+
+    /**
+     * The versions whose JSON the stub fails to serve.
+     */
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The amount of times each path was requested.
+     */
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    /**
+     * The stub of the SpigotMC Hub.
+     */
+    private HttpServer server;
+
+    /**
+     * The executor serving requests.
+     */
+    private ExecutorService executor;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentDiscoveryIsFasterThanSerial() throws Exception {
+        final long serialStart = System.nanoTime();
+        final List<String> serial = versions(collect(1, null));
+        final long serialTime = (System.nanoTime() - serialStart) / 1_000_000;
+        final long concurrentStart = System.nanoTime();
+        final List<String> concurrent = versions(collect(8, null));
+        final long concurrentTime = (System.nanoTime() - concurrentStart) / 1_000_000;
+        assertEquals(serial, concurrent);
+        assertTrue("Concurrent discovery took " + concurrentTime + "ms, serial took " + serialTime + "ms",
+                concurrentTime * 3 < serialTime);
+    }
+
+    @Test
+    public void keepsTheLatestVersionOfEachNmsVersion() throws Exception {
+        assertEquals(Arrays.asList("1.17.4", "1.18.1", "1.18.2", "1.19.2", "1.19.3"), versions(collect(8, null)));
+    }
+
+    @Test
+    public void failsWhenAVersionCannotBeResolved() throws Exception {
+        failing.add("1.19.2");
+        try {
+            collect(8, null);
+            fail("Discovery succeeded without 1.19.2, which would have built 1.19.1 in its place");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("1.19.2"));
+        }
+    }
+
+    @Test
+    public void onlyResolvesSelectedVersions() throws Exception {
+        final VersionSelector selector = new VersionSelector();
+        selector.addVersions("1.18-1.18.2");
+        assertEquals(Arrays.asList("1.18", "1.18.1", "1.18.2"), versions(collect(8, selector)));
+        for (String version : VERSIONS.keySet()) {
+            final AtomicInteger count = requests.get("/versions/" + version + ".json");
+            assertEquals(version, version.startsWith("1.18") ? 1 : 0, count == null ? 0 : count.get());
+        }
+    }
+
+    /**
+     * Method to discover the versions listed by the stub.
+     *
+     * @param inFlight the maximum amount of versions being resolved at once.
+     * @param selector of the versions, or {@code null}.
+     * @return {@link SpigotVersionCollector} which discovered the versions.
+     * @throws Exception if the discovery fails.
+     */
+    @NotNull
+    private SpigotVersionCollector collect(int inFlight, VersionSelector selector) throws Exception {
+        final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new SpigotVersionCollector(base + "/versions/", base + "/pom?at=", inFlight, selector, true, null);
+    }
+
+    /**
+     * Method to obtain the names of the discovered versions, in ascending order.
+     *
+     * @param collector which discovered the versions.
+     * @return {@link List} of version names.
+     */
+    @NotNull
+    private static List<String> versions(@NotNull SpigotVersionCollector collector) {
+        return collector.getVersions().stream().map(MinecraftVersion::toString).collect(Collectors.toList());
+    }
+
+    /**
+     * Method to answer a request to the stub, after the {@link #DELAY}.
+     *
+     * @param exchange to answer.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        try {
+            Thread.sleep(DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = null;
+        if (path.equals("/versions/")) {
+            final StringBuilder listing = new StringBuilder("<html><body><pre>\n");
+            for (String version : VERSIONS.keySet()) {
+                listing.append("<a href=\"").append(version).append(".json\">").append(version)
+                        .append(".json</a>    05-Aug-2022 09:53    512\n");
+            }
+            body = listing.append("</pre></body></html>\n").toString();
+        } else if (path.startsWith("/versions/") && path.endsWith(".json")) {
+            final String version = path.substring("/versions/".length(), path.length() - ".json".length());
+            if (VERSIONS.containsKey(version) && !failing.contains(version)) {
+                body = "{\n  \"name\": \"" + version + "\",\n  \"refs\": {\n    \"CraftBukkit\": \"cb-" + version
+                        + "\"\n  }\n}\n";
+            }
+        } else if (path.equals("/pom")) {
+            final String version = exchange.getRequestURI().getQuery().replace("at=cb-", "");
+            if (VERSIONS.containsKey(version)) {
+                body = "<project>\n  <properties>\n    <minecraft_version>" + VERSIONS.get(version)
+                        + "</minecraft_version>\n  </properties>\n</project>\n";
+            }
+        }
+        final byte[] bytes = (body == null ? "Not Found" : body).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(body == null ? 500 : 200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+}
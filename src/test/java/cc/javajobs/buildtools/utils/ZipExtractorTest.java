@@ -0,0 +1,259 @@
+package cc.javajobs.buildtools.utils;
+
+import net.lingala.zip4j.ZipFile;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ZipExtractor} against a synthetic Zip shaped like a JDK archive.
+ * <p>
+ *     The Zip holds {@link #ENTRIES} compressible entries, plus executables recorded both with Unix permissions
+ *     and without them (as the Windows JDKs are), the central directory is patched after writing as
+ *     {@link ZipOutputStream} records neither.
+ * </p>
+ *
+ * @author Callum Johnson
+ * @since 17/10/2026 - 06:46
+ */
+public class ZipExtractorTest {
+
+    /**
+     * The amount of plain entries within the Zip.
+     */
+    private static final int ENTRIES = 1000;
+
+    /**
+     * The size of each plain entry.
+     */
+    private static final int ENTRY_SIZE = 64 * 1024;
+
+    /**
+     * The 'version made by' host values for MS-DOS and Unix.
+     */
+    private static final int HOST_DOS = 0, HOST_UNIX = 3;
+
+    /**
+     * The entries whose host and Unix mode are patched into the central directory, as {host, mode}.
+     */
+    private static final Map<String, int[]> MODES = new HashMap<>();
+
+    static {
+        MODES.put("unix/bin/java", new int[]{HOST_UNIX, 0100755});
+        MODES.put("unix/lib/jvm.cfg", new int[]{HOST_UNIX, 0100644});
+        MODES.put("windows/bin/java.exe", new int[]{HOST_DOS, 0});
+        MODES.put("windows/lib/jvm.cfg", new int[]{HOST_DOS, 0});
+    }
+
+    /**
+     * The folder the Zip is written to and extracted into.
+     */
+    private File folder;
+
+    /**
+     * The Zip under test.
+     */
+    private File zip;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = new File("target/test-extract/" + System.nanoTime());
+        assertTrue(folder.mkdirs());
+        zip = new File(folder, "jdk.zip");
+        writeZip(zip);
+    }
+
+    @Test
+    public void entriesAreExtracted() throws IOException {
+        final File destination = new File(folder, "extracted");
+        new ZipExtractor(4).extract(zip, destination);
+        for (int i = 0; i < ENTRIES; i++) {
+            assertArrayEquals(content(i), Files.readAllBytes(new File(destination, entry(i)).toPath()));
+        }
+        for (String name : MODES.keySet()) {
+            assertEquals(name, new String(Files.readAllBytes(new File(destination, name).toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void executableBitsAreRestored() throws IOException {
+        final File destination = new File(folder, "extracted");
+        new ZipExtractor(4).extract(zip, destination);
+        final Set<PosixFilePermission> unixJava = permissions(destination, "unix/bin/java");
+        assertTrue(unixJava.contains(PosixFilePermission.OWNER_EXECUTE));
+        assertTrue(unixJava.contains(PosixFilePermission.OTHERS_EXECUTE));
+        assertFalse(permissions(destination, "unix/lib/jvm.cfg").contains(PosixFilePermission.OWNER_EXECUTE));
+        assertTrue(permissions(destination, "windows/bin/java.exe").contains(PosixFilePermission.OWNER_EXECUTE));
+        assertFalse(permissions(destination, "windows/lib/jvm.cfg").contains(PosixFilePermission.OWNER_EXECUTE));
+    }
+
+    @Test
+    public void markerTracksCompleteExtraction() throws IOException {
+        assertFalse(ZipExtractor.isExtracted(zip));
+        final File destination = new File(folder, "extracted");
+        new ZipExtractor(4).extract(zip, destination);
+        assertTrue(ZipExtractor.isExtracted(zip));
+
+        ZipExtractor.clearMarker(zip);
+        assertFalse(ZipExtractor.isExtracted(zip));
+
+        ZipExtractor.markExtracted(zip);
+        assertTrue(zip.setLastModified(zip.lastModified() - 60_000)); // A replaced Zip invalidates the marker.
+        assertFalse(ZipExtractor.isExtracted(zip));
+    }
+
+    @Test
+    public void failedExtractionLeavesNoMarker() throws IOException {
+        ZipExtractor.markExtracted(zip);
+        final File destination = new File(folder, "extracted");
+        assertTrue(new File(destination, entry(ENTRIES / 2)).mkdirs()); // The entry cannot be written over a folder.
+        try {
+            new ZipExtractor(4).extract(zip, destination);
+            fail("Extracting over a folder should fail");
+        } catch (IOException expected) {
+            assertFalse(ZipExtractor.isExtracted(zip));
+        }
+    }
+
+    @Test
+    public void extractionKeepsPaceWithZip4j() throws IOException {
+        final long zip4jStart = System.nanoTime();
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            zipFile.extractAll(new File(folder, "zip4j").getPath());
+        }
+        final long zip4j = System.nanoTime() - zip4jStart;
+        final int workers = Runtime.getRuntime().availableProcessors();
+        final long pooledStart = System.nanoTime();
+        new ZipExtractor(workers).extract(zip, new File(folder, "pooled"));
+        final long pooled = System.nanoTime() - pooledStart;
+        for (int i = 0; i < ENTRIES; i += ENTRIES / 10) {
+            assertArrayEquals(Files.readAllBytes(new File(folder, "zip4j/" + entry(i)).toPath()),
+                    Files.readAllBytes(new File(folder, "pooled/" + entry(i)).toPath()));
+        }
+        // The gain depends on the cores available to the build, only a regression against Zip4J fails.
+        assertTrue("Extraction with " + workers + " workers took " + pooled / 1_000_000 + "ms, Zip4J took "
+                + zip4j / 1_000_000 + "ms", pooled < zip4j * 2);
+    }
+
+    /**
+     * Method to write the synthetic Zip, then patch the host and mode of the entries in {@link #MODES}.
+     *
+     * @param zip to write.
+     * @throws IOException if the Zip cannot be written.
+     */
+    private static void writeZip(@NotNull File zip) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                out.putNextEntry(new ZipEntry(entry(i)));
+                out.write(content(i));
+                out.closeEntry();
+            }
+            for (String name : MODES.keySet()) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(name.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(zip, "rw")) {
+            // The end of central directory record is the last 22 bytes, as no comment is written.
+            file.seek(file.length() - 22 + 10);
+            final int count = readShort(file);
+            file.skipBytes(4);
+            long position = readInt(file);
+            for (int i = 0; i < count; i++) {
+                file.seek(position + 28);
+                final int nameLength = readShort(file), extraLength = readShort(file), commentLength = readShort(file);
+                final byte[] name = new byte[nameLength];
+                file.seek(position + 46);
+                file.readFully(name);
+                final int[] mode = MODES.get(new String(name, StandardCharsets.UTF_8));
+                if (mode != null) {
+                    file.seek(position + 5);
+                    file.write(mode[0]);
+                    file.seek(position + 38);
+                    final int attributes = mode[1] << 16;
+                    for (int b = 0; b < 4; b++) file.write(attributes >>> (8 * b));
+                }
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        }
+    }
+
+    /**
+     * Method to obtain the name of a plain entry.
+     *
+     * @param index of the entry.
+     * @return the name of the entry, spread across folders.
+     */
+    @NotNull
+    private static String entry(int index) {
+        return "lib/" + (index % 20) + "/entry-" + index + ".txt";
+    }
+
+    /**
+     * Method to obtain the content of a plain entry, text from a small alphabet so it compresses like class files.
+     *
+     * @param index of the entry.
+     * @return the content of the entry.
+     */
+    @NotNull
+    private static byte[] content(int index) {
+        final Random random = new Random(index);
+        final byte[] content = new byte[ENTRY_SIZE];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) ('a' + random.nextInt(16));
+        return content;
+    }
+
+    /**
+     * Method to obtain the permissions of an extracted entry.
+     *
+     * @param destination the Zip was extracted into.
+     * @param name        of the entry.
+     * @return the permissions of the extracted file.
+     * @throws IOException if the permissions cannot be read.
+     */
+    @NotNull
+    private static Set<PosixFilePermission> permissions(@NotNull File destination, @NotNull String name)
+            throws IOException {
+        return Files.getPosixFilePermissions(new File(destination, name).toPath());
+    }
+
+    /**
+     * Method to read a little-endian short.
+     *
+     * @param file to read from.
+     * @return the unsigned value.
+     * @throws IOException if the file cannot be read.
+     */
+    private static int readShort(@NotNull RandomAccessFile file) throws IOException {
+        return file.read() | file.read() << 8;
+    }
+
+    /**
+     * Method to read a little-endian int.
+     *
+     * @param file to read from.
+     * @return the value.
+     * @throws IOException if the file cannot be read.
+     */
+    private static int readInt(@NotNull RandomAccessFile file) throws IOException {
+        return readShort(file) | readShort(file) << 16;
+    }
+
+}